@@ -0,0 +1,140 @@
+package org.restclient.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.restclient.RestClientAutoConfiguration;
+import org.restclient.annotations.RestInterceptor;
+import org.restclient.client.RouteClientCustomizer;
+import org.restclient.config.ServicesConfiguration.RouteSettings;
+import org.restclient.interceptor.Interceptor;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Minimal context with route client and {@link BenchmarkGateway}, without component scan and web server.
+ *
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+@Configuration
+@Import(RestClientAutoConfiguration.class)
+public class BenchmarkApplication {
+	static final String ALIAS = "stub-service";
+	/**
+	 * Host of in-memory transport, never resolved.
+	 */
+	static final String IN_MEMORY_HOST = "http://in-memory";
+
+	/**
+	 * Start context with route of given host.
+	 *
+	 * @param host         - route host
+	 * @param responses    - responses of in-memory transport, null to use network
+	 * @param interceptors - count of interceptors registered for route
+	 * @return started context
+	 */
+	static ConfigurableApplicationContext start(String host, StubResponses responses, int interceptors) {
+		return new SpringApplicationBuilder(BenchmarkApplication.class)
+				.web(WebApplicationType.NONE)
+				.bannerMode(Banner.Mode.OFF)
+				.logStartupInfo(false)
+				.properties("services.routes[0].alias=" + ALIAS,
+						"services.routes[0].host=" + host,
+						"logging.level.root=WARN")
+				.initializers(context -> {
+					if (responses != null) {
+						context.getBeanFactory().registerSingleton("inMemoryTransport", new InMemoryTransport(responses));
+					}
+
+					for (int i = 0; i < interceptors; i++) {
+						context.getBeanFactory().registerSingleton("headerInterceptor" + i, new HeaderInterceptor());
+					}
+				})
+				.run();
+	}
+
+	/**
+	 * Replaces netty connector of route, so exchanges complete without network.
+	 */
+	private static class InMemoryTransport implements RouteClientCustomizer {
+		private final StubResponses responses;
+		private final DataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+		private InMemoryTransport(StubResponses responses) {
+			this.responses = responses;
+		}
+
+		@Override
+		public void customize(RouteSettings settings, WebClient.Builder builder) {
+			builder.exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+					.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+					.body(Flux.just(bufferFactory.wrap(responses.forPath(request.url().getPath()))))
+					.build()));
+		}
+	}
+
+	@RestInterceptor(aliases = ALIAS)
+	private static class HeaderInterceptor implements Interceptor {
+		@Override
+		public void preHandle(Object[] args, Object body, HttpHeaders headers) {
+			headers.set("X-Client", "rest-client");
+		}
+
+		@Override
+		public void postHandle(ResponseEntity<?> responseEntity) {
+		}
+	}
+
+	/**
+	 * Json bodies of stub upstream, encoded once.
+	 */
+	static class StubResponses {
+		private final byte[] ping;
+		private final byte[] repo;
+		private final byte[] repos;
+
+		StubResponses(int listSize) {
+			final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+			final List<CodecBenchmark.Repo> list = new ArrayList<>();
+			for (int i = 0; i < listSize; i++) {
+				list.add(CodecBenchmark.Repo.sample(i));
+			}
+
+			try {
+				ping = mapper.writeValueAsBytes(Collections.emptyMap());
+				repo = mapper.writeValueAsBytes(CodecBenchmark.Repo.sample(0));
+				repos = mapper.writeValueAsBytes(list);
+			} catch (JsonProcessingException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		byte[] forPath(String path) {
+			if (path.startsWith("/ping")) {
+				return ping;
+			} else if (path.startsWith("/repos/")) {
+				return repo;
+			}
+			return repos;
+		}
+	}
+}
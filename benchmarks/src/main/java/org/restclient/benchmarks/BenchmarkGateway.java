@@ -0,0 +1,47 @@
+package org.restclient.benchmarks;
+
+import org.restclient.annotations.Header;
+import org.restclient.annotations.Mapping;
+import org.restclient.annotations.ServiceMapping;
+import org.restclient.annotations.Type;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+import static org.springframework.http.HttpMethod.GET;
+
+/**
+ * Mapping shapes measured by benchmarks, every method exercises one more step of invocation.
+ *
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+@Mapping(alias = BenchmarkApplication.ALIAS)
+public interface BenchmarkGateway {
+	@ServiceMapping(path = "/ping", method = GET)
+	@Type(type = Map.class)
+	Mono<Map> ping();
+
+	@ServiceMapping(path = "/repos/${owner}/${repo}", method = GET)
+	@Type(type = CodecBenchmark.Repo.class)
+	Mono<CodecBenchmark.Repo> getRepo(@PathVariable("owner") String owner, @PathVariable("repo") String repo);
+
+	@ServiceMapping(path = "/search/repositories", method = GET)
+	@Type(type = ArrayList.class)
+	Mono<ArrayList> searchRepos(@RequestParam("q") String query, @RequestParam("sort") String sort, @RequestParam("page") int page);
+
+	@ServiceMapping(path = "/users/${owner}/repos", method = GET,
+			defaultHeaders = {@Header(name = "User-Agent", value = "rest-client-benchmarks")})
+	@Type(type = ArrayList.class)
+	Mono<ArrayList> getReposWithHeaders(@PathVariable("owner") String owner,
+										@RequestHeader("Authorization") String authorization,
+										@RequestHeader("X-Request-Id") String requestId);
+
+	@ServiceMapping(path = "/users/${owner}/repos", method = GET)
+	@Type(type = ArrayList.class)
+	Mono<ArrayList> getRepos(@PathVariable("owner") String owner);
+}
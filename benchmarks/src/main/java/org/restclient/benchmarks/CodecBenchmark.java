@@ -0,0 +1,210 @@
+package org.restclient.benchmarks;
+
+import com.google.protobuf.ListValue;
+import com.google.protobuf.Struct;
+import com.google.protobuf.Value;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.*;
+import org.restclient.codec.CodecType;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.Decoder;
+import org.springframework.core.codec.Encoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.DecoderHttpMessageReader;
+import org.springframework.http.codec.EncoderHttpMessageWriter;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode/decode cost of route codecs on a github-like repository list payload. Encoders and decoders are taken from
+ * exchange strategies configured the way {@link org.restclient.client.RouteClientFactory} configures a route with
+ * the codec, buffers come from pooled netty allocator as on the client.
+ * <p>
+ * Protobuf has no generated message for the payload here, so it goes through {@link Struct}; generated messages
+ * are faster, the numbers are an upper bound for protobuf.
+ *
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+	private static final Map<String, Object> HINTS = Collections.emptyMap();
+
+	@Param({"JSON", "SMILE", "CBOR", "PROTOBUF"})
+	public CodecType codec;
+
+	@Param({"1", "100"})
+	public int size;
+
+	private final DataBufferFactory bufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+	private List<Repo> payload;
+	private MediaType mediaType;
+	private ResolvableType type;
+	private Encoder<Object> encoder;
+	private Decoder<Object> decoder;
+	private byte[] encoded;
+
+	@Setup
+	@SuppressWarnings("unchecked")
+	public void setup() {
+		payload = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			payload.add(Repo.sample(i));
+		}
+
+		final ExchangeStrategies strategies = ExchangeStrategies.builder()
+				.codecs(configurer -> codec.register(configurer.customCodecs()))
+				.build();
+
+		mediaType = codec.getMediaType();
+		type = codec == CodecType.PROTOBUF
+				? ResolvableType.forClass(ListValue.class)
+				: ResolvableType.forClassWithGenerics(List.class, Repo.class);
+
+		encoder = strategies.messageWriters().stream()
+				.filter(writer -> writer instanceof EncoderHttpMessageWriter && writer.canWrite(type, mediaType))
+				.map(writer -> ((EncoderHttpMessageWriter<Object>) writer).getEncoder())
+				.findFirst()
+				.orElseThrow(() -> new IllegalStateException("No encoder of " + codec));
+		decoder = strategies.messageReaders().stream()
+				.filter(reader -> reader instanceof DecoderHttpMessageReader && reader.canRead(type, mediaType))
+				.map(reader -> ((DecoderHttpMessageReader<Object>) reader).getDecoder())
+				.findFirst()
+				.orElseThrow(() -> new IllegalStateException("No decoder of " + codec));
+
+		final DataBuffer buffer = encode();
+		encoded = new byte[buffer.readableByteCount()];
+		buffer.read(encoded);
+		DataBufferUtils.release(buffer);
+	}
+
+	@Benchmark
+	public int encodeBody() {
+		final DataBuffer buffer = encode();
+		final int count = buffer.readableByteCount();
+		DataBufferUtils.release(buffer);
+		return count;
+	}
+
+	@Benchmark
+	@SuppressWarnings("unchecked")
+	public List<Repo> decodeBody() {
+		final Object decoded = decoder.decodeToMono(Flux.just(bufferFactory.wrap(encoded)), type, mediaType, HINTS).block();
+		if (codec != CodecType.PROTOBUF) {
+			return (List<Repo>) decoded;
+		}
+
+		final List<Repo> result = new ArrayList<>();
+		((ListValue) decoded).getValuesList().forEach(value -> result.add(Repo.fromStruct(value.getStructValue())));
+		return result;
+	}
+
+	private DataBuffer encode() {
+		final Object value;
+		if (codec == CodecType.PROTOBUF) {
+			final ListValue.Builder list = ListValue.newBuilder();
+			payload.forEach(repo -> list.addValues(Value.newBuilder().setStructValue(repo.toStruct())));
+			value = list.build();
+		} else {
+			value = payload;
+		}
+
+		return DataBufferUtils.join(encoder.encode(Mono.just(value), bufferFactory, type, mediaType, HINTS)).block();
+	}
+
+	public static class Repo {
+		public long id;
+		public String name;
+		public String fullName;
+		public String description;
+		public boolean fork;
+		public int stargazersCount;
+		public String createdAt;
+		public List<String> topics;
+		public Owner owner;
+
+		static Repo sample(int i) {
+			final Repo repo = new Repo();
+			repo.id = 190_000_000L + i;
+			repo.name = "rest_client_" + i;
+			repo.fullName = "GenCloud/rest_client_" + i;
+			repo.description = "Spring repositories style reactive rest client, sample payload number " + i;
+			repo.fork = i % 2 == 0;
+			repo.stargazersCount = i * 7;
+			repo.createdAt = "2019-08-01T12:00:00Z";
+			repo.topics = Arrays.asList("spring", "webflux", "reactor", "http-client");
+			repo.owner = new Owner();
+			repo.owner.id = 34_000_000L + i;
+			repo.owner.login = "GenCloud";
+			repo.owner.type = "User";
+			return repo;
+		}
+
+		Struct toStruct() {
+			final ListValue.Builder topicValues = ListValue.newBuilder();
+			topics.forEach(topic -> topicValues.addValues(Value.newBuilder().setStringValue(topic)));
+
+			final Struct ownerStruct = Struct.newBuilder()
+					.putFields("id", Value.newBuilder().setNumberValue(owner.id).build())
+					.putFields("login", Value.newBuilder().setStringValue(owner.login).build())
+					.putFields("type", Value.newBuilder().setStringValue(owner.type).build())
+					.build();
+
+			return Struct.newBuilder()
+					.putFields("id", Value.newBuilder().setNumberValue(id).build())
+					.putFields("name", Value.newBuilder().setStringValue(name).build())
+					.putFields("fullName", Value.newBuilder().setStringValue(fullName).build())
+					.putFields("description", Value.newBuilder().setStringValue(description).build())
+					.putFields("fork", Value.newBuilder().setBoolValue(fork).build())
+					.putFields("stargazersCount", Value.newBuilder().setNumberValue(stargazersCount).build())
+					.putFields("createdAt", Value.newBuilder().setStringValue(createdAt).build())
+					.putFields("topics", Value.newBuilder().setListValue(topicValues).build())
+					.putFields("owner", Value.newBuilder().setStructValue(ownerStruct).build())
+					.build();
+		}
+
+		static Repo fromStruct(Struct struct) {
+			final Map<String, Value> fields = struct.getFieldsMap();
+			final Map<String, Value> ownerFields = fields.get("owner").getStructValue().getFieldsMap();
+
+			final Repo repo = new Repo();
+			repo.id = (long) fields.get("id").getNumberValue();
+			repo.name = fields.get("name").getStringValue();
+			repo.fullName = fields.get("fullName").getStringValue();
+			repo.description = fields.get("description").getStringValue();
+			repo.fork = fields.get("fork").getBoolValue();
+			repo.stargazersCount = (int) fields.get("stargazersCount").getNumberValue();
+			repo.createdAt = fields.get("createdAt").getStringValue();
+			repo.topics = new ArrayList<>();
+			fields.get("topics").getListValue().getValuesList().forEach(value -> repo.topics.add(value.getStringValue()));
+			repo.owner = new Owner();
+			repo.owner.id = (long) ownerFields.get("id").getNumberValue();
+			repo.owner.login = ownerFields.get("login").getStringValue();
+			repo.owner.type = ownerFields.get("type").getStringValue();
+			return repo;
+		}
+	}
+
+	public static class Owner {
+		public long id;
+		public String login;
+		public String type;
+	}
+}
@@ -0,0 +1,74 @@
+package org.restclient.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.restclient.benchmarks.BenchmarkApplication.StubResponses;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapped method call over loopback against in-process netty stub, compared with a plain {@link WebClient} call of
+ * the same resource - the difference is overhead of proxy.
+ *
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dreactor.netty.native=false")
+public class EndToEndBenchmark {
+	@Param({"1", "100"})
+	public int size;
+
+	private DisposableServer server;
+	private ConfigurableApplicationContext context;
+	private BenchmarkGateway gateway;
+	private WebClient webClient;
+
+	@Setup
+	public void setup() {
+		final StubResponses responses = new StubResponses(size);
+		server = HttpServer.create()
+				.host("127.0.0.1")
+				.port(0)
+				.handle((request, response) -> response
+						.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+						.sendByteArray(Mono.just(responses.forPath(request.uri()))))
+				.bindNow();
+
+		final String host = "http://127.0.0.1:" + server.port();
+		context = BenchmarkApplication.start(host, null, 0);
+		gateway = context.getBean(BenchmarkGateway.class);
+		webClient = WebClient.create(host);
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+		server.disposeNow();
+	}
+
+	@Benchmark
+	public ArrayList proxy() {
+		return gateway.getRepos("GenCloud").block();
+	}
+
+	@Benchmark
+	public ArrayList webClient() {
+		return webClient.get()
+				.uri("/users/GenCloud/repos")
+				.retrieve()
+				.bodyToMono(ArrayList.class)
+				.block();
+	}
+}
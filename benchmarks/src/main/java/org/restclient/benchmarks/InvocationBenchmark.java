@@ -0,0 +1,67 @@
+package org.restclient.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.restclient.benchmarks.BenchmarkApplication.StubResponses;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client side cost of a mapped method call, transport is in memory.
+ * <p>
+ * Methods not subscribing the result measure invocation only: proxy dispatch, metadata and route lookup, argument
+ * binding, url expansion, header handling and interceptor chain. {@link #exchange()} adds request building, filters
+ * and json decoding of response. Run with {@code -prof gc} to see allocations per call.
+ *
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvocationBenchmark {
+	@Param({"0", "4"})
+	public int interceptors;
+
+	private ConfigurableApplicationContext context;
+	private BenchmarkGateway gateway;
+
+	@Setup
+	public void setup() {
+		context = BenchmarkApplication.start(BenchmarkApplication.IN_MEMORY_HOST, new StubResponses(10), interceptors);
+		gateway = context.getBean(BenchmarkGateway.class);
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public Object dispatch() {
+		return gateway.ping();
+	}
+
+	@Benchmark
+	public Object bindPathVariables() {
+		return gateway.getRepo("GenCloud", "rest_client");
+	}
+
+	@Benchmark
+	public Object bindRequestParams() {
+		return gateway.searchRepos("webflux", "stars", 2);
+	}
+
+	@Benchmark
+	public Object bindHeaders() {
+		return gateway.getReposWithHeaders("GenCloud", "token 0123456789abcdef", "7f1c2a");
+	}
+
+	@Benchmark
+	public Object exchange() {
+		return gateway.getRepo("GenCloud", "rest_client").block();
+	}
+}
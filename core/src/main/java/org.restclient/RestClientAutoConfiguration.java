@@ -1,11 +1,29 @@
 package org.restclient;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.restclient.client.RouteClientCustomizer;
+import org.restclient.client.RouteClientFactory;
+import org.restclient.client.RouteRegistry;
 import org.restclient.config.ServicesConfiguration;
+import org.restclient.config.ServicesConfiguration.Tracing;
 import org.restclient.factory.ServiceMappingRegistrator;
+import org.restclient.metrics.RestClientMetrics;
+import org.restclient.tracing.LoggingSpanSink;
+import org.restclient.tracing.SpanSink;
+import org.restclient.tracing.Tracer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
 /**
  * @author: GenCloud
  * @created: 2019/08
@@ -14,4 +32,34 @@ import org.springframework.context.annotation.Import;
 @Import(ServiceMappingRegistrator.class)
 @EnableConfigurationProperties(ServicesConfiguration.class)
 public class RestClientAutoConfiguration {
+	@Bean
+	public RouteClientFactory routeClientFactory(ObjectProvider<RouteClientCustomizer> customizers) {
+		return new RouteClientFactory(customizers.orderedStream().collect(Collectors.toList()));
+	}
+
+	@Bean
+	public RouteRegistry routeRegistry(RouteClientFactory routeClientFactory, ServicesConfiguration configuration) {
+		return new RouteRegistry(routeClientFactory, configuration);
+	}
+
+	@Bean
+	public Tracer tracer(ServicesConfiguration configuration, ObjectProvider<SpanSink> sinks) {
+		final Tracing tracing = configuration.getTracing();
+		List<SpanSink> spanSinks = sinks.orderedStream().collect(Collectors.toList());
+		if (spanSinks.isEmpty()) {
+			spanSinks = Collections.singletonList(new LoggingSpanSink(tracing.getMaxLogsPerSecond()));
+		}
+		return new Tracer(tracing.getSamplingRate(), tracing.getRedactedHeaders(), spanSinks);
+	}
+
+	@Configuration
+	@ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+	@ConditionalOnProperty(prefix = "services.metrics", name = "enabled", matchIfMissing = true)
+	static class MetricsConfiguration {
+		@Bean
+		public RestClientMetrics restClientMetrics(ObjectProvider<MeterRegistry> registry, ServicesConfiguration configuration) {
+			return new RestClientMetrics(registry.getIfAvailable(() -> Metrics.globalRegistry),
+					configuration.getMetrics().isPercentileHistogram());
+		}
+	}
 }
@@ -26,5 +26,26 @@ public @interface ServiceMapping {
 
 	Class<?> fallbackClass() default Object.class;
 
+	/**
+	 * Method of fallback class called when the call fails (error response, connection failure, timeout) with
+	 * mapped method arguments and the error appended. Its result - a publisher or a single value - replaces the
+	 * response.
+	 */
 	String fallbackMethod() default "";
+
+	/**
+	 * Media types produced by remote route, sent as Accept header. Overrides codecs preference of route alias.
+	 */
+	String[] produces() default {};
+
+	/**
+	 * Media type consumed by remote route, sent as Content-Type header of request body. Overrides codecs
+	 * preference of route alias.
+	 */
+	String consumes() default "";
+
+	/**
+	 * Priority of calls waiting for a connection when pool of route alias is saturated, higher is served first.
+	 */
+	int priority() default 0;
 }
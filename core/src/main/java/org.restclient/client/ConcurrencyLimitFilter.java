@@ -0,0 +1,196 @@
+package org.restclient.client;
+
+import org.restclient.deadline.Deadline;
+import org.restclient.deadline.DeadlineFilter;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.lang.NonNull;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Comparator;
+import java.util.Queue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits concurrent exchanges of route, excess requests wait in queue without holding a connection or stream.
+ * A permit is held until response body is consumed (or the exchange fails/is cancelled), so a response body
+ * must always be consumed or released.
+ * <p>
+ * Waiting requests are served by {@link RouteClient#PRIORITY_ATTRIBUTE} (higher first), in arrival order within a
+ * priority. Requests whose {@link Deadline} passed while waiting are failed instead of taking a permit, others
+ * are sent with {@link DeadlineFilter#TIMEOUT_HEADER} reduced by the wait.
+ *
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+public class ConcurrencyLimitFilter implements ExchangeFilterFunction {
+	private final int limit;
+	private final long acquireTimeout;
+	private final AtomicInteger active = new AtomicInteger();
+	private final AtomicLong sequence = new AtomicLong();
+	private final Queue<Waiter> pending = new PriorityBlockingQueue<>(16, Waiter.ORDER);
+
+	public ConcurrencyLimitFilter(int limit) {
+		this(limit, -1);
+	}
+
+	/**
+	 * @param limit          - max concurrent exchanges
+	 * @param acquireTimeout - max time in millis to wait for a permit, -1 to wait without limit
+	 */
+	public ConcurrencyLimitFilter(int limit, long acquireTimeout) {
+		this.limit = limit;
+		this.acquireTimeout = acquireTimeout;
+	}
+
+	@Override
+	@NonNull
+	public Mono<ClientResponse> filter(@NonNull ClientRequest request, @NonNull ExchangeFunction next) {
+		final Object priority = request.attributes().get(RouteClient.PRIORITY_ATTRIBUTE);
+		final Deadline deadline = (Deadline) request.attributes().get(DeadlineFilter.ATTRIBUTE);
+
+		return acquire(priority instanceof Integer ? (Integer) priority : 0, deadline).flatMap(permit ->
+				next.exchange(DeadlineFilter.refresh(request))
+						.map(response -> ClientResponse.from(response)
+								.body(response.bodyToFlux(DataBuffer.class)
+										.doOnTerminate(permit::release)
+										.doOnCancel(permit::release))
+								.build())
+						.doOnError(e -> permit.release())
+						.doOnCancel(permit::release));
+	}
+
+	public int getActive() {
+		return active.get();
+	}
+
+	public int getPending() {
+		return pending.size();
+	}
+
+	private Mono<Permit> acquire(int priority, Deadline deadline) {
+		return Mono.create(sink -> {
+			if (deadline != null && deadline.isExpired()) {
+				sink.error(new TimeoutException("Deadline exceeded while waiting for connection"));
+				return;
+			}
+
+			if (tryAcquire()) {
+				final Permit permit = new Permit();
+				sink.onCancel(permit::release);
+				sink.success(permit);
+				return;
+			}
+
+			final Waiter waiter = new Waiter(sink, priority, sequence.incrementAndGet(), deadline, new Permit());
+			sink.onCancel(() -> {
+				if (waiter.state.compareAndSet(Waiter.WAITING, Waiter.CANCELLED)) {
+					pending.remove(waiter);
+				} else if (waiter.state.get() == Waiter.ACQUIRED) {
+					// cancelled while permit was handed over, its value is dropped by sink
+					waiter.permit.release();
+				}
+			});
+
+			if (acquireTimeout >= 0) {
+				final Disposable timer = Schedulers.parallel().schedule(() -> {
+					if (waiter.state.compareAndSet(Waiter.WAITING, Waiter.CANCELLED)) {
+						pending.remove(waiter);
+						sink.error(new TimeoutException("Permit was not acquired within " + acquireTimeout + "ms"));
+					}
+				}, acquireTimeout, TimeUnit.MILLISECONDS);
+				sink.onDispose(timer);
+			}
+
+			pending.offer(waiter);
+
+			// permit could be released between tryAcquire and offer
+			drain();
+		});
+	}
+
+	private boolean tryAcquire() {
+		for (; ; ) {
+			final int current = active.get();
+			if (current >= limit) {
+				return false;
+			}
+
+			if (active.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	private void release() {
+		active.decrementAndGet();
+		drain();
+	}
+
+	private void drain() {
+		while (!pending.isEmpty() && tryAcquire()) {
+			final Waiter waiter = pending.poll();
+			if (waiter != null && waiter.deadline != null && waiter.deadline.isExpired()) {
+				active.decrementAndGet();
+				if (waiter.state.compareAndSet(Waiter.WAITING, Waiter.CANCELLED)) {
+					waiter.sink.error(new TimeoutException("Deadline exceeded while waiting for connection"));
+				}
+				continue;
+			}
+
+			if (waiter == null || !waiter.state.compareAndSet(Waiter.WAITING, Waiter.ACQUIRED)) {
+				active.decrementAndGet();
+				continue;
+			}
+
+			waiter.sink.success(waiter.permit);
+		}
+	}
+
+	private class Permit {
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		private void release() {
+			if (released.compareAndSet(false, true)) {
+				ConcurrencyLimitFilter.this.release();
+			}
+		}
+	}
+
+	private static class Waiter {
+		private static final int WAITING = 0;
+		private static final int ACQUIRED = 1;
+		private static final int CANCELLED = 2;
+
+		private static final Comparator<Waiter> ORDER = Comparator.comparingInt((Waiter waiter) -> waiter.priority)
+				.reversed()
+				.thenComparingLong(waiter -> waiter.sequence);
+
+		private final MonoSink<Permit> sink;
+		private final int priority;
+		private final long sequence;
+		private final Deadline deadline;
+		private final AtomicInteger state = new AtomicInteger(WAITING);
+		// created upfront, so a cancel racing with delivery can release it
+		private final Permit permit;
+
+		private Waiter(MonoSink<Permit> sink, int priority, long sequence, Deadline deadline, Permit permit) {
+			this.sink = sink;
+			this.permit = permit;
+			this.priority = priority;
+			this.sequence = sequence;
+			this.deadline = deadline;
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package org.restclient.client;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.lang.NonNull;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts exchanges of route client in flight, from request until response body is consumed (or the exchange
+ * fails/is cancelled), so {@link RouteRegistry} disposes a replaced client once its last exchange completes.
+ *
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+public class InflightFilter implements ExchangeFilterFunction {
+	private final AtomicInteger active = new AtomicInteger();
+	private volatile Runnable idleCallback;
+
+	@Override
+	@NonNull
+	public Mono<ClientResponse> filter(@NonNull ClientRequest request, @NonNull ExchangeFunction next) {
+		return Mono.defer(() -> {
+			active.incrementAndGet();
+			final AtomicBoolean released = new AtomicBoolean();
+			final Runnable release = () -> {
+				if (released.compareAndSet(false, true)) {
+					release();
+				}
+			};
+
+			return next.exchange(request)
+					.map(response -> ClientResponse.from(response)
+							.body(response.bodyToFlux(DataBuffer.class)
+									.doFinally(signal -> release.run()))
+							.build())
+					.doOnError(e -> release.run())
+					.doOnCancel(release);
+		});
+	}
+
+	public int getActive() {
+		return active.get();
+	}
+
+	/**
+	 * Run callback once no exchange is in flight, right away if there is none. Callback may be run more than once
+	 * if exchanges are still started, so it must be idempotent.
+	 *
+	 * @param callback - callback, replaces the previous one
+	 */
+	public void onIdle(Runnable callback) {
+		idleCallback = callback;
+		if (active.get() == 0) {
+			callback.run();
+		}
+	}
+
+	private void release() {
+		if (active.decrementAndGet() == 0) {
+			final Runnable callback = idleCallback;
+			if (callback != null) {
+				callback.run();
+			}
+		}
+	}
+}
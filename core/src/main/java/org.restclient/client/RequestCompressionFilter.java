@@ -0,0 +1,211 @@
+package org.restclient.client;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ClientHttpRequest;
+import org.springframework.http.client.reactive.ClientHttpRequestDecorator;
+import org.springframework.lang.NonNull;
+import org.springframework.web.reactive.function.BodyInserter;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip request bodies of at least threshold bytes. Only chunks up to the threshold are held back to take the
+ * decision, the rest of body is compressed chunk by chunk as it is written.
+ *
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+public class RequestCompressionFilter implements ExchangeFilterFunction {
+	private static final String GZIP = "gzip";
+
+	private final long threshold;
+
+	public RequestCompressionFilter(long threshold) {
+		this.threshold = threshold;
+	}
+
+	@Override
+	@NonNull
+	public Mono<ClientResponse> filter(@NonNull ClientRequest request, @NonNull ExchangeFunction next) {
+		if (request.headers().containsKey(HttpHeaders.CONTENT_ENCODING)) {
+			return next.exchange(request);
+		}
+
+		final BodyInserter<?, ? super ClientHttpRequest> body = request.body();
+		final ClientRequest compressed = ClientRequest.from(request)
+				.body((outputMessage, context) -> body.insert(new CompressingRequest(outputMessage), context))
+				.build();
+
+		return next.exchange(compressed);
+	}
+
+	private class CompressingRequest extends ClientHttpRequestDecorator {
+		private long size;
+		private boolean compress;
+
+		private CompressingRequest(ClientHttpRequest delegate) {
+			super(delegate);
+		}
+
+		@Override
+		@NonNull
+		public Mono<Void> writeWith(@NonNull Publisher<? extends DataBuffer> body) {
+			// prefix is emitted as one list once threshold is crossed (or body completes), then chunk by chunk
+			return Flux.<DataBuffer>from(body)
+					.bufferUntil(buffer -> {
+						if (compress) {
+							return true;
+						}
+
+						size += buffer.readableByteCount();
+						compress = size >= threshold;
+						return compress;
+					})
+					.switchOnFirst((signal, lists) -> {
+						final Flux<DataBuffer> buffers = lists.flatMapIterable(Function.identity());
+						if (!compress) {
+							return super.writeWith(buffers);
+						}
+
+						final HttpHeaders headers = getHeaders();
+						headers.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+						headers.remove(HttpHeaders.CONTENT_LENGTH);
+						return super.writeWith(gzip(buffers, bufferFactory()));
+					})
+					.then();
+		}
+	}
+
+	private static Flux<DataBuffer> gzip(Flux<DataBuffer> buffers, DataBufferFactory bufferFactory) {
+		return Flux.using(() -> new GzipStream(bufferFactory),
+				stream -> buffers
+						.map(buffer -> {
+							try {
+								return stream.write(buffer);
+							} finally {
+								DataBufferUtils.release(buffer);
+							}
+						})
+						.concatWith(Mono.fromCallable(stream::finish))
+						.handle((buffer, sink) -> {
+							// deflater holds small inputs back until it has enough to emit
+							if (buffer.readableByteCount() > 0) {
+								sink.next(buffer);
+							} else {
+								DataBufferUtils.release(buffer);
+							}
+						}),
+				GzipStream::close);
+	}
+
+	/**
+	 * Gzip stream writing compressed bytes straight into buffers of request factory, one buffer per input chunk.
+	 */
+	private static class GzipStream {
+		private static final int MIN_CAPACITY = 64;
+
+		private final DataBufferFactory bufferFactory;
+		private final byte[] chunk = new byte[8192];
+		private GZIPOutputStream gzip;
+		private DataBuffer target;
+
+		private GzipStream(DataBufferFactory bufferFactory) {
+			this.bufferFactory = bufferFactory;
+		}
+
+		private DataBuffer write(DataBuffer input) {
+			final DataBuffer output = start(input.readableByteCount() / 2);
+			try {
+				final ByteBuffer bytes = input.asByteBuffer();
+				if (bytes.hasArray()) {
+					gzip.write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+				} else {
+					// Deflater of java 8 takes arrays only
+					while (bytes.hasRemaining()) {
+						final int length = Math.min(bytes.remaining(), chunk.length);
+						bytes.get(chunk, 0, length);
+						gzip.write(chunk, 0, length);
+					}
+				}
+				return end(output);
+			} catch (IOException | RuntimeException e) {
+				DataBufferUtils.release(end(output));
+				throw e instanceof IOException ? new UncheckedIOException((IOException) e) : (RuntimeException) e;
+			}
+		}
+
+		private DataBuffer finish() throws IOException {
+			final DataBuffer output = start(MIN_CAPACITY);
+			try {
+				gzip.finish();
+				return end(output);
+			} catch (IOException | RuntimeException e) {
+				DataBufferUtils.release(end(output));
+				throw e;
+			}
+		}
+
+		private DataBuffer start(int capacity) {
+			target = bufferFactory.allocateBuffer(Math.max(capacity, MIN_CAPACITY));
+			if (gzip == null) {
+				try {
+					// header goes to the first buffer
+					gzip = new GZIPOutputStream(new TargetStream());
+				} catch (IOException e) {
+					DataBufferUtils.release(end(target));
+					throw new UncheckedIOException(e);
+				}
+			}
+			return target;
+		}
+
+		private DataBuffer end(DataBuffer output) {
+			target = null;
+			return output;
+		}
+
+		private void close() {
+			// trailer of a cancelled body is dropped, deflater is released
+			if (gzip != null) {
+				try {
+					gzip.close();
+				} catch (IOException ignored) {
+				}
+			}
+		}
+
+		/**
+		 * Sink of gzip stream, a cancelled body has no target.
+		 */
+		private class TargetStream extends OutputStream {
+			@Override
+			public void write(int b) {
+				if (target != null) {
+					target.write((byte) b);
+				}
+			}
+
+			@Override
+			public void write(@NonNull byte[] bytes, int offset, int length) {
+				if (target != null) {
+					target.write(bytes, offset, length);
+				}
+			}
+		}
+	}
+}
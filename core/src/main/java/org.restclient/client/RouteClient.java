@@ -0,0 +1,47 @@
+package org.restclient.client;
+
+import lombok.Data;
+import org.restclient.config.ServicesConfiguration.RouteSettings;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Shared http client of route alias, built once with codecs and connection settings of route.
+ *
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+@Data
+public class RouteClient {
+	/**
+	 * Request attributes set for every mapped method call, available to exchange filters.
+	 */
+	public static final String ALIAS_ATTRIBUTE = RouteClient.class.getName() + ".alias";
+	public static final String METHOD_ATTRIBUTE = RouteClient.class.getName() + ".method";
+	public static final String URI_TEMPLATE_ATTRIBUTE = RouteClient.class.getName() + ".uriTemplate";
+	public static final String PRIORITY_ATTRIBUTE = RouteClient.class.getName() + ".priority";
+
+	private final RouteSettings settings;
+	private final WebClient webClient;
+	private final ConnectionProvider connectionProvider;
+	/**
+	 * Counter of exchanges in flight, a replaced client is disposed once it drops to zero.
+	 */
+	private final InflightFilter inflightFilter;
+	/**
+	 * Limiter of fixed pool connections, null for elastic pools.
+	 */
+	@Nullable
+	private final ConcurrencyLimitFilter limitFilter;
+	/**
+	 * Content type of request body if mapped method does not define it, null means codecs default (json).
+	 */
+	@Nullable
+	private final MediaType contentType;
+
+	public String getAlias() {
+		return settings.getAlias();
+	}
+}
@@ -0,0 +1,43 @@
+package org.restclient.client;
+
+import org.restclient.config.ServicesConfiguration.RouteSettings;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+
+/**
+ * Callback to customize transport and client of route when its {@link RouteClient} is created.
+ * Beans of this type are applied by {@link RouteClientFactory} in order.
+ *
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+public interface RouteClientCustomizer {
+	/**
+	 * Customize reactor netty client of route.
+	 *
+	 * @param settings   - route settings
+	 * @param httpClient - configured http client
+	 * @return customized http client
+	 */
+	default HttpClient customize(RouteSettings settings, HttpClient httpClient) {
+		return httpClient;
+	}
+
+	/**
+	 * Customize web client of route, e.g. add exchange filters. Filters added here wrap the built-in ones.
+	 *
+	 * @param settings - route settings
+	 * @param builder  - web client builder
+	 */
+	default void customize(RouteSettings settings, WebClient.Builder builder) {
+	}
+
+	/**
+	 * Release what was set up for a route client, called once its pool is disposed - a replaced client is disposed
+	 * after drain timeout, while the client which replaced it is already in use.
+	 *
+	 * @param settings - settings instance the client was created with
+	 */
+	default void dispose(RouteSettings settings) {
+	}
+}
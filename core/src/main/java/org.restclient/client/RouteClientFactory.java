@@ -0,0 +1,119 @@
+package org.restclient.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.restclient.codec.CodecType;
+import org.restclient.config.ServicesConfiguration.Compression;
+import org.restclient.config.ServicesConfiguration.Pool;
+import org.restclient.config.ServicesConfiguration.RouteSettings;
+import org.restclient.deadline.DeadlineFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Creates {@link RouteClient} of route with its codecs, connection pool and filters. Clients are shared per alias
+ * by {@link RouteRegistry}.
+ *
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+@Slf4j
+public class RouteClientFactory {
+	private static final String ACCEPT_ENCODING = "gzip, deflate";
+
+	private final List<RouteClientCustomizer> customizers;
+
+	public RouteClientFactory() {
+		this(Collections.emptyList());
+	}
+
+	public RouteClientFactory(List<RouteClientCustomizer> customizers) {
+		this.customizers = customizers;
+	}
+
+	/**
+	 * Create client of route, it must be disposed by caller with {@link #dispose(RouteClient)}.
+	 *
+	 * @param settings - route settings
+	 * @return route client
+	 */
+	public RouteClient createClient(RouteSettings settings) {
+		final List<CodecType> codecs = settings.getCodecs();
+
+		final ExchangeStrategies strategies = ExchangeStrategies.builder()
+				.codecs(configurer ->
+						codecs.forEach(codec -> codec.register(configurer.customCodecs())))
+				.build();
+
+		final Compression compression = settings.getCompression();
+
+		final Pool pool = settings.getPool();
+		final String poolName = "restclient-" + settings.getAlias();
+		final ConnectionProvider connectionProvider = pool.getMaxConnections() > 0
+				? ConnectionProvider.fixed(poolName, pool.getMaxConnections(), pool.getAcquireTimeout())
+				: ConnectionProvider.elastic(poolName);
+
+		HttpClient httpClient = HttpClient.create(connectionProvider)
+				.compress(compression.isEnabled());
+		for (RouteClientCustomizer customizer : customizers) {
+			httpClient = customizer.customize(settings, httpClient);
+		}
+
+		final WebClient.Builder builder = WebClient.builder()
+				.clientConnector(new ReactorClientHttpConnector(httpClient))
+				.exchangeStrategies(strategies);
+
+		if (compression.isEnabled()) {
+			// netty compress() sets "gzip" over headers of HttpClient, so it goes with the request instead
+			builder.defaultHeader(HttpHeaders.ACCEPT_ENCODING, ACCEPT_ENCODING);
+		}
+
+		// outermost, exchange is in flight until all filters are done with it
+		final InflightFilter inflightFilter = new InflightFilter();
+		builder.filter(inflightFilter);
+
+		customizers.forEach(customizer -> customizer.customize(settings, builder));
+
+		builder.filter(new DeadlineFilter());
+
+		ConcurrencyLimitFilter limitFilter = null;
+		if (pool.getMaxConnections() > 0) {
+			// requests queue here instead of in pool: netty serves pool acquisitions in arrival order, without
+			// regard to priority or deadline
+			limitFilter = new ConcurrencyLimitFilter(pool.getMaxConnections(), pool.getAcquireTimeout());
+			builder.filter(limitFilter);
+		}
+
+		if (compression.getRequestThreshold() >= 0) {
+			builder.filter(new RequestCompressionFilter(compression.getRequestThreshold()));
+		}
+
+		MediaType contentType = null;
+		if (!codecs.isEmpty()) {
+			final List<MediaType> mediaTypes = codecs.stream().map(CodecType::getMediaType).collect(Collectors.toList());
+			builder.defaultHeader(HttpHeaders.ACCEPT, MediaType.toString(mediaTypes));
+			contentType = mediaTypes.get(0);
+		}
+
+		log.info("Create route client - alias: {}, host: {}, max connections: {}, codecs: {}, compression: {}, request compression threshold: {}",
+				settings.getAlias(), settings.getHost(), pool.getMaxConnections(), codecs,
+				compression.isEnabled(), compression.getRequestThreshold());
+		return new RouteClient(settings, builder.build(), connectionProvider, inflightFilter, limitFilter, contentType);
+	}
+
+	/**
+	 * Dispose pool of route client and let customizers release what they set up for it.
+	 */
+	public void dispose(RouteClient client) {
+		client.getConnectionProvider().dispose();
+		customizers.forEach(customizer -> customizer.dispose(client.getSettings()));
+	}
+}
@@ -0,0 +1,163 @@
+package org.restclient.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.restclient.config.ServicesConfiguration;
+import org.restclient.config.ServicesConfiguration.RouteSettings;
+import org.restclient.model.RoutesRefreshEvent;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.event.SmartApplicationListener;
+import org.springframework.core.env.Environment;
+import org.springframework.lang.NonNull;
+import org.springframework.util.ClassUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import javax.naming.ConfigurationException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Route clients by alias. Calls read an immutable snapshot, which is swapped as a whole when routes are refreshed:
+ * clients of unchanged routes are kept, clients of changed or removed routes are replaced and their pools disposed
+ * once calls in flight complete on the old pool, at most after drain timeout.
+ * <p>
+ * Routes are rebuilt from environment on {@link RoutesRefreshEvent} and on Spring Cloud EnvironmentChangeEvent.
+ *
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+@Slf4j
+public class RouteRegistry implements SmartApplicationListener, EnvironmentAware, DisposableBean {
+	// null without Spring Cloud on classpath
+	private static final Class<?> ENVIRONMENT_CHANGE_EVENT = resolve("org.springframework.cloud.context.environment.EnvironmentChangeEvent");
+
+	private final RouteClientFactory factory;
+	private final AtomicReference<Map<String, RouteClient>> routes = new AtomicReference<>(Collections.emptyMap());
+	private Environment environment;
+	private volatile long drainTimeout;
+
+	public RouteRegistry(RouteClientFactory factory, ServicesConfiguration configuration) {
+		this.factory = factory;
+		this.drainTimeout = configuration.getDrainTimeout();
+		update(configuration.getRoutes());
+	}
+
+	@Override
+	public void setEnvironment(@NonNull Environment environment) {
+		this.environment = environment;
+	}
+
+	/**
+	 * Get client of route.
+	 *
+	 * @param alias - route alias
+	 * @return route client
+	 * @throws ConfigurationException if route is not configured
+	 */
+	public RouteClient getClient(String alias) throws ConfigurationException {
+		final RouteClient client = routes.get().get(alias);
+		if (client == null) {
+			throw new ConfigurationException("Cant find service host! Check configuration. Alias: " + alias);
+		}
+		return client;
+	}
+
+	@Override
+	public boolean supportsEventType(@NonNull Class<? extends ApplicationEvent> eventType) {
+		return RoutesRefreshEvent.class.isAssignableFrom(eventType)
+				|| (ENVIRONMENT_CHANGE_EVENT != null && ENVIRONMENT_CHANGE_EVENT.isAssignableFrom(eventType));
+	}
+
+	@Override
+	public void onApplicationEvent(@NonNull ApplicationEvent event) {
+		try {
+			refresh();
+		} catch (RuntimeException e) {
+			log.error("Routes are not refreshed, current ones are kept", e);
+		}
+	}
+
+	/**
+	 * Bind services.* properties from environment again and apply routes.
+	 */
+	public void refresh() {
+		final ServicesConfiguration configuration = Binder.get(environment)
+				.bind("services", ServicesConfiguration.class)
+				.orElseGet(ServicesConfiguration::new);
+
+		drainTimeout = configuration.getDrainTimeout();
+		update(configuration.getRoutes());
+	}
+
+	/**
+	 * Replace routes, new calls use them immediately.
+	 *
+	 * @param settings - all routes, null means none
+	 * @throws RuntimeException if a route client can't be created, routes are left unchanged
+	 */
+	public synchronized void update(List<RouteSettings> settings) {
+		final Map<String, RouteClient> current = routes.get();
+		final Map<String, RouteClient> next = new HashMap<>();
+		if (settings != null) {
+			try {
+				for (RouteSettings route : settings) {
+					final RouteClient client = current.get(route.getAlias());
+					next.put(route.getAlias(), client != null && client.getSettings().equals(route)
+							? client
+							: factory.createClient(route));
+				}
+			} catch (RuntimeException e) {
+				next.values()
+						.stream()
+						.filter(client -> current.get(client.getAlias()) != client)
+						.forEach(factory::dispose);
+				throw e;
+			}
+		}
+
+		routes.set(Collections.unmodifiableMap(next));
+
+		current.values()
+				.stream()
+				.filter(client -> next.get(client.getAlias()) != client)
+				.forEach(this::drain);
+	}
+
+	@Override
+	public void destroy() {
+		final Map<String, RouteClient> current = routes.getAndSet(Collections.emptyMap());
+		current.values().forEach(factory::dispose);
+	}
+
+	private void drain(RouteClient client) {
+		log.info("Drain route client - alias: {}, host: {}, timeout: {} ms", client.getAlias(),
+				client.getSettings().getHost(), drainTimeout);
+
+		final AtomicBoolean disposed = new AtomicBoolean();
+		final Runnable dispose = () -> {
+			if (disposed.compareAndSet(false, true)) {
+				factory.dispose(client);
+			}
+		};
+
+		final Disposable timeout = Mono.delay(Duration.ofMillis(drainTimeout))
+				.subscribe(ignored -> dispose.run());
+		client.getInflightFilter().onIdle(() -> {
+			timeout.dispose();
+			dispose.run();
+		});
+	}
+
+	private static Class<?> resolve(String className) {
+		final ClassLoader classLoader = RouteRegistry.class.getClassLoader();
+		return ClassUtils.isPresent(className, classLoader) ? ClassUtils.resolveClassName(className, classLoader) : null;
+	}
+}
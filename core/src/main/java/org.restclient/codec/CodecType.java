@@ -0,0 +1,67 @@
+package org.restclient.codec;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.CodecConfigurer.CustomCodecs;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.codec.protobuf.ProtobufDecoder;
+import org.springframework.http.codec.protobuf.ProtobufEncoder;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Wire formats which can be enabled per route alias. Every format except {@link #JSON} needs its library
+ * on the classpath (jackson-dataformat-smile, jackson-dataformat-cbor, protobuf-java).
+ *
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+public enum CodecType {
+	JSON(MediaType.APPLICATION_JSON, null),
+	SMILE(new MediaType("application", "x-jackson-smile"), "com.fasterxml.jackson.dataformat.smile.SmileFactory"),
+	CBOR(new MediaType("application", "cbor"), "com.fasterxml.jackson.dataformat.cbor.CBORFactory"),
+	PROTOBUF(new MediaType("application", "x-protobuf"), "com.google.protobuf.Message");
+
+	private final MediaType mediaType;
+	private final String requiredClass;
+
+	CodecType(MediaType mediaType, String requiredClass) {
+		this.mediaType = mediaType;
+		this.requiredClass = requiredClass;
+	}
+
+	public MediaType getMediaType() {
+		return mediaType;
+	}
+
+	public boolean isAvailable() {
+		return requiredClass == null || ClassUtils.isPresent(requiredClass, CodecType.class.getClassLoader());
+	}
+
+	/**
+	 * Register encoder and decoder of format. Json codecs are registered by default and skipped here.
+	 *
+	 * @param customCodecs - custom codecs of client codec configurer
+	 */
+	public void register(CustomCodecs customCodecs) {
+		if (!isAvailable()) {
+			throw new IllegalStateException("Codec " + this + " is configured, but " + requiredClass + " is not found on classpath!");
+		}
+
+		switch (this) {
+			case SMILE:
+				customCodecs.decoder(new Jackson2SmileDecoder());
+				customCodecs.encoder(new Jackson2SmileEncoder());
+				break;
+			case CBOR:
+				customCodecs.decoder(new Jackson2CborDecoder());
+				customCodecs.encoder(new Jackson2CborEncoder());
+				break;
+			case PROTOBUF:
+				customCodecs.decoder(new ProtobufDecoder());
+				customCodecs.encoder(new ProtobufEncoder());
+				break;
+			default:
+				break;
+		}
+	}
+}
@@ -0,0 +1,32 @@
+package org.restclient.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.codec.json.AbstractJackson2Encoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.lang.Nullable;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * Encode objects to CBOR binary format using Jackson.
+ *
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+public class Jackson2CborEncoder extends AbstractJackson2Encoder {
+	public Jackson2CborEncoder() {
+		this(Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build());
+	}
+
+	public Jackson2CborEncoder(ObjectMapper mapper) {
+		super(mapper, CodecType.CBOR.getMediaType());
+	}
+
+	@Override
+	@Nullable
+	protected <A extends Annotation> A getAnnotation(MethodParameter parameter, Class<A> annotType) {
+		return parameter.getMethodAnnotation(annotType);
+	}
+}
@@ -1,11 +1,17 @@
 package org.restclient.config;
 
+import org.restclient.codec.CodecType;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpHeaders;
 import org.springframework.core.annotation.Order;
+import reactor.netty.resources.ConnectionProvider;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * @author: GenCloud
@@ -17,6 +23,12 @@ import java.util.List;
 @Order
 public class ServicesConfiguration {
 	private List<RouteSettings> routes;
+	/**
+	 * Max time in millis connection pools of changed or removed routes are kept open for calls in flight.
+	 */
+	private long drainTimeout = 30000;
+	private Metrics metrics = new Metrics();
+	private Tracing tracing = new Tracing();
 
 	public List<RouteSettings> getRoutes() {
 		return routes;
@@ -26,9 +38,39 @@ public class ServicesConfiguration {
 		this.routes = routes;
 	}
 
+	public long getDrainTimeout() {
+		return drainTimeout;
+	}
+
+	public void setDrainTimeout(long drainTimeout) {
+		this.drainTimeout = drainTimeout;
+	}
+
+	public Metrics getMetrics() {
+		return metrics;
+	}
+
+	public void setMetrics(Metrics metrics) {
+		this.metrics = metrics;
+	}
+
+	public Tracing getTracing() {
+		return tracing;
+	}
+
+	public void setTracing(Tracing tracing) {
+		this.tracing = tracing;
+	}
+
 	public static class RouteSettings {
 		private String alias;
 		private String host;
+		/**
+		 * Wire formats accepted and sent by route, first one is preferred. Json only if empty.
+		 */
+		private List<CodecType> codecs = new ArrayList<>();
+		private Compression compression = new Compression();
+		private Pool pool = new Pool();
 
 		public String getAlias() {
 			return alias;
@@ -45,5 +87,195 @@ public class ServicesConfiguration {
 		public void setHost(String host) {
 			this.host = host;
 		}
+
+		public List<CodecType> getCodecs() {
+			return codecs;
+		}
+
+		public void setCodecs(List<CodecType> codecs) {
+			this.codecs = codecs;
+		}
+
+		public Compression getCompression() {
+			return compression;
+		}
+
+		public void setCompression(Compression compression) {
+			this.compression = compression;
+		}
+
+		public Pool getPool() {
+			return pool;
+		}
+
+		public void setPool(Pool pool) {
+			this.pool = pool;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (o == null || getClass() != o.getClass()) return false;
+			RouteSettings that = (RouteSettings) o;
+			return Objects.equals(alias, that.alias) &&
+					Objects.equals(host, that.host) &&
+					Objects.equals(codecs, that.codecs) &&
+					Objects.equals(compression, that.compression) &&
+					Objects.equals(pool, that.pool);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(alias, host, codecs, compression, pool);
+		}
+	}
+
+	public static class Pool {
+		/**
+		 * Max connections of route pool, non-positive value means elastic pool.
+		 */
+		private int maxConnections = -1;
+		/**
+		 * Max time in millis to wait for a free connection of fixed pool.
+		 */
+		private long acquireTimeout = ConnectionProvider.DEFAULT_POOL_ACQUIRE_TIMEOUT;
+
+		public int getMaxConnections() {
+			return maxConnections;
+		}
+
+		public void setMaxConnections(int maxConnections) {
+			this.maxConnections = maxConnections;
+		}
+
+		public long getAcquireTimeout() {
+			return acquireTimeout;
+		}
+
+		public void setAcquireTimeout(long acquireTimeout) {
+			this.acquireTimeout = acquireTimeout;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (o == null || getClass() != o.getClass()) return false;
+			Pool that = (Pool) o;
+			return maxConnections == that.maxConnections &&
+					acquireTimeout == that.acquireTimeout;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(maxConnections, acquireTimeout);
+		}
+	}
+
+	public static class Compression {
+		/**
+		 * Accept gzip/deflate encoded responses, decompressed transparently.
+		 */
+		private boolean enabled = true;
+		/**
+		 * Gzip request bodies of at least this size in bytes, negative value disables request compression.
+		 */
+		private long requestThreshold = -1;
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public long getRequestThreshold() {
+			return requestThreshold;
+		}
+
+		public void setRequestThreshold(long requestThreshold) {
+			this.requestThreshold = requestThreshold;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (o == null || getClass() != o.getClass()) return false;
+			Compression that = (Compression) o;
+			return enabled == that.enabled &&
+					requestThreshold == that.requestThreshold;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(enabled, requestThreshold);
+		}
+	}
+
+	public static class Metrics {
+		/**
+		 * Record micrometer meters of routes, requires micrometer-core on classpath.
+		 */
+		private boolean enabled = true;
+		/**
+		 * Publish percentile histogram buckets of request timer, for percentiles aggregated by monitoring system.
+		 */
+		private boolean percentileHistogram = false;
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public boolean isPercentileHistogram() {
+			return percentileHistogram;
+		}
+
+		public void setPercentileHistogram(boolean percentileHistogram) {
+			this.percentileHistogram = percentileHistogram;
+		}
+	}
+
+	public static class Tracing {
+		/**
+		 * Share of traced calls, from 0 (tracing off) to 1 (every call).
+		 */
+		private double samplingRate = 0;
+		/**
+		 * Headers whose values are replaced in reported spans.
+		 */
+		private List<String> redactedHeaders = new ArrayList<>(Arrays.asList(HttpHeaders.AUTHORIZATION,
+				HttpHeaders.PROXY_AUTHORIZATION, HttpHeaders.COOKIE, HttpHeaders.SET_COOKIE));
+		/**
+		 * Max spans logged per second, excess spans are dropped.
+		 */
+		private int maxLogsPerSecond = 10;
+
+		public double getSamplingRate() {
+			return samplingRate;
+		}
+
+		public void setSamplingRate(double samplingRate) {
+			this.samplingRate = samplingRate;
+		}
+
+		public List<String> getRedactedHeaders() {
+			return redactedHeaders;
+		}
+
+		public void setRedactedHeaders(List<String> redactedHeaders) {
+			this.redactedHeaders = redactedHeaders;
+		}
+
+		public int getMaxLogsPerSecond() {
+			return maxLogsPerSecond;
+		}
+
+		public void setMaxLogsPerSecond(int maxLogsPerSecond) {
+			this.maxLogsPerSecond = maxLogsPerSecond;
+		}
 	}
 }
@@ -0,0 +1,74 @@
+package org.restclient.deadline;
+
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Point in time after which the caller is no longer interested in the result of a call. Deadline is propagated to
+ * mapped method calls through Reactor context, keyed by {@code Deadline.class}:
+ * <pre>
+ * gateway.getRepos(owner)
+ *         .subscriberContext(Deadline.of(Duration.ofMillis(200)).toContext());
+ * </pre>
+ * A nested deadline never extends the outer one - {@link #toContext()} on a context already holding an earlier
+ * deadline keeps the earlier one.
+ *
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+public final class Deadline {
+	private final long nanoTime;
+
+	private Deadline(long nanoTime) {
+		this.nanoTime = nanoTime;
+	}
+
+	/**
+	 * @param timeout - time left from now
+	 * @return deadline expiring after timeout
+	 */
+	public static Deadline of(Duration timeout) {
+		return new Deadline(System.nanoTime() + timeout.toNanos());
+	}
+
+	/**
+	 * @param context - reactor context of call
+	 * @return deadline of context, null if call is not bound by one
+	 */
+	public static Deadline from(Context context) {
+		return context.getOrDefault(Deadline.class, null);
+	}
+
+	/**
+	 * @return time left until deadline, zero or negative once expired
+	 */
+	public Duration remaining() {
+		return Duration.ofNanos(nanoTime - System.nanoTime());
+	}
+
+	public boolean isExpired() {
+		return nanoTime - System.nanoTime() <= 0;
+	}
+
+	/**
+	 * @param other - another deadline, may be null
+	 * @return the earlier of both deadlines
+	 */
+	public Deadline min(Deadline other) {
+		return other == null || nanoTime - other.nanoTime <= 0 ? this : other;
+	}
+
+	/**
+	 * @return context modifier for {@code subscriberContext}, putting the earlier of this and present deadline
+	 */
+	public Function<Context, Context> toContext() {
+		return context -> context.put(Deadline.class, min(from(context)));
+	}
+
+	@Override
+	public String toString() {
+		return "Deadline{remaining=" + remaining().toMillis() + "ms}";
+	}
+}
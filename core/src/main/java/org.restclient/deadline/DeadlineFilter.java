@@ -0,0 +1,76 @@
+package org.restclient.deadline;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.lang.NonNull;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Bounds exchanges by {@link Deadline} of Reactor context. An expired call fails without being sent, otherwise
+ * remaining time is sent as {@link #TIMEOUT_HEADER} (millis, relative, so clocks of both sides need not agree)
+ * and the exchange, including the wait for a connection and response body, fails with {@link TimeoutException}
+ * once deadline passes. Deadline is exposed to following filters as {@link #ATTRIBUTE}, a filter which may hold
+ * the request back (like {@link org.restclient.client.ConcurrencyLimitFilter}) must send it through
+ * {@link #refresh(ClientRequest)}, so time spent there is not granted to the server.
+ *
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+public class DeadlineFilter implements ExchangeFilterFunction {
+	public static final String TIMEOUT_HEADER = "X-Request-Timeout";
+	/**
+	 * Request attribute holding deadline of call, absent when call is not bound by one.
+	 */
+	public static final String ATTRIBUTE = Deadline.class.getName();
+
+	@Override
+	@NonNull
+	public Mono<ClientResponse> filter(@NonNull ClientRequest request, @NonNull ExchangeFunction next) {
+		return Mono.subscriberContext().flatMap(context -> {
+			final Deadline deadline = Deadline.from(context);
+			if (deadline == null) {
+				return next.exchange(request);
+			}
+
+			final long remaining = deadline.remaining().toMillis();
+			if (remaining <= 0) {
+				return Mono.error(new TimeoutException("Deadline exceeded before request was sent: " + request.url()));
+			}
+
+			final ClientRequest bounded = ClientRequest.from(request)
+					.header(TIMEOUT_HEADER, String.valueOf(remaining))
+					.attribute(ATTRIBUTE, deadline)
+					.build();
+
+			// body chunks re-arm the timer with what is left, so the whole body is bound by the same deadline
+			return next.exchange(bounded)
+					.timeout(deadline.remaining())
+					.map(response -> ClientResponse.from(response)
+							.body(response.bodyToFlux(DataBuffer.class)
+									.timeout(Mono.delay(deadline.remaining()), buffer -> Mono.delay(deadline.remaining())))
+							.build());
+		});
+	}
+
+	/**
+	 * Recompute {@link #TIMEOUT_HEADER} of request bound by deadline from what is left of it now.
+	 *
+	 * @return same request if it is not bound by deadline
+	 */
+	public static ClientRequest refresh(ClientRequest request) {
+		final Object deadline = request.attributes().get(ATTRIBUTE);
+		if (!(deadline instanceof Deadline)) {
+			return request;
+		}
+
+		final long remaining = Math.max(((Deadline) deadline).remaining().toMillis(), 0);
+		return ClientRequest.from(request)
+				.headers(headers -> headers.set(TIMEOUT_HEADER, String.valueOf(remaining)))
+				.build();
+	}
+}
@@ -0,0 +1,50 @@
+package org.restclient.deadline;
+
+import org.apache.commons.lang3.math.NumberUtils;
+import org.springframework.lang.NonNull;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Starts deadline of inbound request from its {@link DeadlineFilter#TIMEOUT_HEADER}, optionally capped by a server
+ * side timeout, so mapped method calls made while handling it stop once the caller gave up. Not registered
+ * automatically - declare it as a bean in a WebFlux application.
+ *
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+public class DeadlineWebFilter implements WebFilter {
+	private final long maxTimeout;
+
+	public DeadlineWebFilter() {
+		this(-1);
+	}
+
+	/**
+	 * @param maxTimeout - deadline in millis of requests without header (and cap of header), -1 for none
+	 */
+	public DeadlineWebFilter(long maxTimeout) {
+		this.maxTimeout = maxTimeout;
+	}
+
+	@Override
+	@NonNull
+	public Mono<Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
+		final String header = exchange.getRequest().getHeaders().getFirst(DeadlineFilter.TIMEOUT_HEADER);
+		long timeout = NumberUtils.toLong(header, -1);
+		if (maxTimeout >= 0 && (timeout < 0 || timeout > maxTimeout)) {
+			timeout = maxTimeout;
+		}
+
+		if (timeout < 0) {
+			return chain.filter(exchange);
+		}
+
+		return chain.filter(exchange)
+				.subscriberContext(Deadline.of(Duration.ofMillis(timeout)).toContext());
+	}
+}
@@ -3,14 +3,20 @@ package org.restclient.factory;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ArrayUtils;
+import org.reactivestreams.Publisher;
 import org.restclient.annotations.RestInterceptor;
 import org.restclient.annotations.ServiceMapping;
 import org.restclient.annotations.Type;
-import org.restclient.config.ServicesConfiguration;
-import org.restclient.config.ServicesConfiguration.RouteSettings;
+import org.restclient.client.RouteClient;
+import org.restclient.client.RouteRegistry;
 import org.restclient.interceptor.Interceptor;
+import org.restclient.model.FallbackEvent;
 import org.restclient.model.MappingMetadata;
 import org.restclient.model.Pair;
+import org.restclient.model.ResponseMode;
+import org.restclient.tracing.Span;
+import org.restclient.tracing.Span.Phase;
+import org.restclient.tracing.Tracer;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
@@ -19,6 +25,7 @@ import org.springframework.cglib.proxy.Enhancer;
 import org.springframework.cglib.proxy.MethodInterceptor;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
@@ -28,14 +35,17 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.reactive.function.client.WebClient.RequestBodySpec;
+import org.springframework.web.reactive.function.client.WebClient.RequestHeadersSpec;
 import org.springframework.web.reactive.function.client.WebClient.ResponseSpec;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import javax.naming.ConfigurationException;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.util.*;
@@ -48,6 +58,8 @@ import java.util.*;
 @ToString
 public class MappingFactoryBean implements BeanFactoryAware, FactoryBean<Object>, ApplicationContextAware {
 	private static final Collection<String> ignoredMethods = Arrays.asList("equals", "hashCode", "toString");
+	private static final Collection<String> hopByHopHeaders = Arrays.asList("connection", "keep-alive", "proxy-authenticate",
+			"proxy-authorization", "te", "trailer", "transfer-encoding", "upgrade");
 
 	private Class<?> type;
 	private List<Object> fallbackInstances;
@@ -55,6 +67,8 @@ public class MappingFactoryBean implements BeanFactoryAware, FactoryBean<Object>
 	private String alias;
 	private ApplicationContext applicationContext;
 	private BeanFactory beanFactory;
+	private RouteRegistry routeRegistry;
+	private Tracer tracer;
 
 	@Override
 	public void setApplicationContext(@NonNull ApplicationContext applicationContext) throws BeansException {
@@ -105,13 +119,16 @@ public class MappingFactoryBean implements BeanFactoryAware, FactoryBean<Object>
 			throw new NoSuchMethodException(String.format("Cant find metadata for method %s. Check your mapping configuration!", method.getName()));
 		}
 
-		final RouteSettings routeSettings = findSettingsByAlias(alias);
-		final String host = routeSettings.getHost();
+		final Span span = getTracer().start(alias, metadata);
+
+		final RouteClient routeClient = getRouteRegistry().getClient(alias);
+		final String host = routeClient.getSettings().getHost();
 
 		String url = metadata.getUrl().replace(String.format("${%s}", alias), host);
 
 		final HttpMethod httpMethod = metadata.getHttpMethod();
-		final HttpHeaders httpHeaders = metadata.getHttpHeaders();
+		final HttpHeaders httpHeaders = new HttpHeaders();
+		httpHeaders.addAll(metadata.getHttpHeaders());
 
 		final List<Pair<String, Object>> foundVars = new ArrayList<>();
 		final List<Pair<String, Object>> foundParams = new ArrayList<>();
@@ -122,80 +139,61 @@ public class MappingFactoryBean implements BeanFactoryAware, FactoryBean<Object>
 		final Object body = initHttpVariables(args, parameters, foundVars, foundParams, foundHeaders);
 
 		url = replaceHttpVariables(url, foundVars, foundParams, foundHeaders, httpHeaders);
+		if (span != null) {
+			span.mark(Phase.BINDING);
+		}
 
 		preHandle(args, body, httpHeaders);
+		if (span != null) {
+			span.mark(Phase.INTERCEPTORS);
+		}
 
-		if (log.isDebugEnabled()) {
-			log.debug("Execute Service Mapping request");
-			log.debug("Url: {}", url);
-			log.debug("Headers: {}", httpHeaders);
-			if (body != null) {
-				log.debug("Body: {}", body);
-			}
+		if (body != null && httpHeaders.getContentType() == null && routeClient.getContentType() != null) {
+			httpHeaders.setContentType(routeClient.getContentType());
 		}
 
-		final Object call = handleHttpCall(annotation, args, url, httpMethod, body, httpHeaders, metadata);
+		final Object call = handleHttpCall(annotation, routeClient, url, httpMethod, body, httpHeaders, metadata, span);
 		postHandle(ResponseEntity.ok(call));
-		return call;
+		return withFallback(span == null ? call : traced(call, span, metadata.getResponseMode()), annotation, args, metadata, url);
 	}
 
-	private Object handleHttpCall(ServiceMapping annotation, Object[] args, String url, HttpMethod httpMethod, Object body, HttpHeaders httpHeaders, MappingMetadata metadata) throws Throwable {
-		final WebClient webClient = WebClient.create(url);
-
-		ResponseSpec responseSpec;
+	private Object handleHttpCall(ServiceMapping annotation, RouteClient routeClient, String url, HttpMethod httpMethod,
+								  Object body, HttpHeaders httpHeaders, MappingMetadata metadata, Span span) {
+		final WebClient webClient = routeClient.getWebClient();
 		final Class<?> returnType = metadata.getReturnType();
-		try {
-			if (body != null) {
-				responseSpec = webClient
-						.method(httpMethod)
-						.headers(c -> c.addAll(httpHeaders))
-						.body(BodyInserters.fromPublisher(Mono.just(body), Object.class))
-						.retrieve();
-			} else {
-				responseSpec = webClient
-						.method(httpMethod)
-						.headers(c -> c.addAll(httpHeaders))
-						.retrieve();
-			}
-		} catch (RestClientResponseException ex) {
-			if (log.isDebugEnabled()) {
-				log.debug("Error on execute route request - Code: {}, Error: {}, Route: {}", ex.getRawStatusCode(), ex.getResponseBodyAsString(), url);
-			}
 
-			final String fallbackMethod = metadata.getFallbackMethod();
-
-			final Object target = fallbackInstances.stream()
-					.filter(o ->
-							o.getClass().getSimpleName().equals(annotation.fallbackClass().getSimpleName()))
-					.findFirst().orElse(null);
+		final RequestBodySpec bodySpec = webClient
+				.method(httpMethod)
+				.uri(url)
+				.attribute(RouteClient.ALIAS_ATTRIBUTE, alias)
+				.attribute(RouteClient.METHOD_ATTRIBUTE, metadata.getMethodName())
+				.attribute(RouteClient.URI_TEMPLATE_ATTRIBUTE, metadata.getUriTemplate())
+				.attribute(RouteClient.PRIORITY_ATTRIBUTE, annotation.priority())
+				.headers(c -> c.addAll(httpHeaders));
+
+		if (span != null) {
+			bodySpec.attribute(Span.ATTRIBUTE, span);
+		}
 
-			Method fallback = null;
-			if (target != null) {
-				fallback = Arrays.stream(target.getClass().getMethods())
-						.filter(m -> m.getName().equals(fallbackMethod))
-						.findFirst()
-						.orElse(null);
-			}
+		final RequestHeadersSpec<?> requestSpec = body != null ? bodySpec.body(BodyInserters.fromObject(body)) : bodySpec;
 
-			if (fallback != null) {
-				args = Arrays.copyOf(args, args.length + 1);
-				args[args.length - 1] = ex;
-				final Object result = fallback.invoke(target, args);
-				return Mono.just(result);
-			} else if (returnType == Mono.class) {
-				return Mono.just(ResponseEntity.status(ex.getRawStatusCode()).body(ex.getResponseBodyAsString()));
-			} else if (returnType == Flux.class) {
-				return Flux.just(ResponseEntity.status(ex.getRawStatusCode()).body(ex.getResponseBodyAsString()));
-			} else {
-				return Mono.empty();
-			}
+		final ResponseSpec responseSpec;
+		switch (metadata.getResponseMode()) {
+			case CLIENT_RESPONSE:
+				return requestSpec.exchange();
+			case RAW_ENTITY:
+				return requestSpec.exchange().map(this::toRawEntity);
+			default:
+				responseSpec = requestSpec.retrieve();
 		}
 
 		final Method method = metadata.getMethod();
 		final Type classType = method.getDeclaredAnnotation(Type.class);
 		final Class<?> type = classType == null ? Object.class : classType.type();
 
-		if (returnType == Mono.class) {
+		if (metadata.getResponseMode() == ResponseMode.RAW_BUFFERS) {
+			return responseSpec.bodyToFlux(DataBuffer.class);
+		} else if (returnType == Mono.class) {
 			return responseSpec.bodyToMono(type);
 		} else if (returnType == Flux.class) {
 			return responseSpec.bodyToFlux(type);
@@ -204,6 +202,115 @@ public class MappingFactoryBean implements BeanFactoryAware, FactoryBean<Object>
 		return null;
 	}
 
+	/**
+	 * Route errors of call - error responses, connection failures, timeouts - to fallback method of mapping. Errors
+	 * are signalled by the returned publisher, not thrown on invocation, so fallback is applied on it.
+	 */
+	@SuppressWarnings("unchecked")
+	private Object withFallback(Object call, ServiceMapping annotation, Object[] args, MappingMetadata metadata, String url) {
+		if (metadata.getFallbackMethod().isEmpty()) {
+			return call;
+		}
+
+		if (call instanceof Mono) {
+			return ((Mono<Object>) call).onErrorResume(e -> Mono.from(fallback(e, annotation, args, metadata, url)));
+		} else if (call instanceof Flux) {
+			return ((Flux<Object>) call).onErrorResume(e -> fallback(e, annotation, args, metadata, url));
+		}
+		return call;
+	}
+
+	/**
+	 * Invoke fallback method with call arguments and error appended. A publisher result replaces the response as
+	 * is, other results are emitted as single value.
+	 */
+	@SuppressWarnings("unchecked")
+	private Publisher<Object> fallback(Throwable error, ServiceMapping annotation, Object[] args, MappingMetadata metadata, String url) {
+		if (log.isDebugEnabled() && error instanceof WebClientResponseException) {
+			final WebClientResponseException ex = (WebClientResponseException) error;
+			log.debug("Error on execute route request - Code: {}, Error: {}, Route: {}", ex.getRawStatusCode(), ex.getResponseBodyAsString(), url);
+		}
+
+		final String fallbackMethod = metadata.getFallbackMethod();
+
+		final Object target = fallbackInstances.stream()
+				.filter(o ->
+						o.getClass().getSimpleName().equals(annotation.fallbackClass().getSimpleName()))
+				.findFirst().orElse(null);
+
+		Method fallback = null;
+		if (target != null) {
+			fallback = Arrays.stream(target.getClass().getMethods())
+					.filter(m -> m.getName().equals(fallbackMethod))
+					.findFirst()
+					.orElse(null);
+		}
+
+		if (fallback == null) {
+			log.warn("Undefined fallback method '{}' of {}! Check mapping configuration!", fallbackMethod, annotation.fallbackClass().getName());
+			return Mono.error(error);
+		}
+
+		applicationContext.publishEvent(new FallbackEvent(this, alias, metadata.getMethodName(), error));
+
+		final Object[] fallbackArgs = Arrays.copyOf(args, args.length + 1);
+		fallbackArgs[fallbackArgs.length - 1] = error;
+		try {
+			final Object result = fallback.invoke(target, fallbackArgs);
+			return result instanceof Publisher ? (Publisher<Object>) result : Mono.justOrEmpty(result);
+		} catch (InvocationTargetException e) {
+			return Mono.error(e.getTargetException());
+		} catch (IllegalAccessException | IllegalArgumentException e) {
+			return Mono.error(e);
+		}
+	}
+
+	/**
+	 * Finish span of sampled call when its result completes. Decoded results mark decode phase, exchange results
+	 * complete with response headers - body consumption is not part of their span.
+	 */
+	private Object traced(Object call, Span span, ResponseMode responseMode) {
+		final Tracer tracer = getTracer();
+		final boolean decoded = responseMode == ResponseMode.DECODED || responseMode == ResponseMode.RAW_BUFFERS;
+		if (call instanceof Mono) {
+			return ((Mono<?>) call)
+					.doOnSuccess(result -> {
+						if (decoded) {
+							span.mark(Phase.DECODE);
+						}
+						tracer.finish(span, null);
+					})
+					.doOnError(e -> tracer.finish(span, e))
+					.doOnCancel(() -> tracer.finish(span, null));
+		} else if (call instanceof Flux) {
+			return ((Flux<?>) call)
+					.doOnComplete(() -> tracer.finish(span.mark(Phase.DECODE), null))
+					.doOnError(e -> tracer.finish(span, e))
+					.doOnCancel(() -> tracer.finish(span, null));
+		}
+		return call;
+	}
+
+	/**
+	 * Wraps exchange result without decoding: response buffers are passed through as is and must be released by
+	 * the subscriber (writing them to a WebFlux server response does it). Hop-by-hop headers are not relayed.
+	 *
+	 * @param response - exchange result
+	 * @return response entity with raw body stream
+	 */
+	private ResponseEntity<Flux<DataBuffer>> toRawEntity(ClientResponse response) {
+		final HttpHeaders headers = new HttpHeaders();
+		response.headers().asHttpHeaders().forEach((name, values) -> {
+			if (!hopByHopHeaders.contains(name.toLowerCase(Locale.ROOT))) {
+				headers.put(name, values);
+			}
+		});
+
+		return ResponseEntity.status(response.rawStatusCode())
+				.headers(headers)
+				.body(response.bodyToFlux(DataBuffer.class));
+	}
+
 	private String replaceHttpVariables(String url, final List<Pair<String, Object>> foundVars, final List<Pair<String, Object>> foundParams,
 										final List<Pair<String, Object>> foundHeaders, final HttpHeaders httpHeaders) {
 		for (Pair<String, Object> pair : foundVars) {
@@ -280,6 +387,20 @@ public class MappingFactoryBean implements BeanFactoryAware, FactoryBean<Object>
 				.forEach(i -> i.postHandle(responseEntity));
 	}
 
+	private RouteRegistry getRouteRegistry() {
+		if (routeRegistry == null) {
+			routeRegistry = applicationContext.getBean(RouteRegistry.class);
+		}
+		return routeRegistry;
+	}
+
+	private Tracer getTracer() {
+		if (tracer == null) {
+			tracer = applicationContext.getBean(Tracer.class);
+		}
+		return tracer;
+	}
+
 	private MappingMetadata findMetadataByMethodName(String methodName) {
 		return metadatas
 				.stream()
@@ -287,16 +408,6 @@ public class MappingFactoryBean implements BeanFactoryAware, FactoryBean<Object>
 				.orElseThrow(() -> new InvocationFailureException(""));
 	}
 
-	private RouteSettings findSettingsByAlias(String alias) throws ConfigurationException {
-		final ServicesConfiguration servicesConfiguration = applicationContext.getAutowireCapableBeanFactory().getBean(ServicesConfiguration.class);
-		return servicesConfiguration.getRoutes()
-				.stream()
-				.filter(r ->
-						r.getAlias().equals(alias))
-				.findFirst()
-				.orElseThrow(() -> new ConfigurationException("Cant find service host! Check configuration. Alias: " + alias));
-	}
-
 	@SuppressWarnings("unused")
 	public Class<?> getType() {
 		return type;
@@ -5,6 +5,7 @@ import org.restclient.annotations.Header;
 import org.restclient.annotations.Mapping;
 import org.restclient.annotations.ServiceMapping;
 import org.restclient.model.MappingMetadata;
+import org.restclient.model.ResponseMode;
 import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinitionHolder;
 import org.springframework.beans.factory.support.AbstractBeanDefinition;
@@ -24,6 +25,7 @@ import org.springframework.core.type.ClassMetadata;
 import org.springframework.core.type.filter.AnnotationTypeFilter;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.lang.NonNull;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.StringUtils;
@@ -166,12 +168,20 @@ public class ServiceMappingRegistrator implements ImportBeanDefinitionRegistrar,
 							.forEach(header -> httpHeaders.add(header.name(), header.value()));
 				}
 
+				if (serviceMapping.produces().length > 0) {
+					httpHeaders.set(HttpHeaders.ACCEPT, String.join(", ", serviceMapping.produces()));
+				}
+
+				if (!serviceMapping.consumes().isEmpty()) {
+					httpHeaders.setContentType(MediaType.parseMediaType(serviceMapping.consumes()));
+				}
+
 				final Object instance = serviceMapping.fallbackClass().newInstance();
 				fallbackInstances.add(instance);
 
 				final String fallbackName = serviceMapping.fallbackMethod();
 				final String buildedUrl = url.toString();
-				final MappingMetadata mappingMetadata = new MappingMetadata(method, httpMethod, buildedUrl, httpHeaders, fallbackName);
+				final MappingMetadata mappingMetadata = new MappingMetadata(method, httpMethod, buildedUrl, httpHeaders, fallbackName, ResponseMode.of(method));
 				metadatas.add(mappingMetadata);
 
 				log.info("Bind api path - alias: {}, url: {}", alias, buildedUrl);
@@ -0,0 +1,61 @@
+package org.restclient.gather;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Outcomes of scatter-gather calls, in order of submission. Calls which were not needed (required successes
+ * reached or no longer reachable) are cancelled, started or not.
+ *
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+@Data
+public class GatherResult<T> {
+	private final int required;
+	private final List<Outcome<T>> outcomes;
+
+	/**
+	 * @return true if at least required calls succeeded
+	 */
+	public boolean isSatisfied() {
+		return getSucceeded() >= required;
+	}
+
+	public long getSucceeded() {
+		return outcomes.stream().filter(outcome -> outcome.getState() == State.SUCCEEDED).count();
+	}
+
+	/**
+	 * @return values of succeeded calls, null for calls completed empty
+	 */
+	public List<T> getValues() {
+		return outcomes.stream()
+				.filter(outcome -> outcome.getState() == State.SUCCEEDED)
+				.map(Outcome::getValue)
+				.collect(Collectors.toList());
+	}
+
+	public List<Outcome<T>> getFailures() {
+		return outcomes.stream()
+				.filter(outcome -> outcome.getState() == State.FAILED)
+				.collect(Collectors.toList());
+	}
+
+	public enum State {
+		SUCCEEDED,
+		FAILED,
+		CANCELLED
+	}
+
+	@Data
+	public static class Outcome<T> {
+		private final int index;
+		private final String alias;
+		private final State state;
+		private final T value;
+		private final Throwable error;
+	}
+}
@@ -0,0 +1,332 @@
+package org.restclient.gather;
+
+import org.reactivestreams.Publisher;
+import org.restclient.gather.GatherResult.Outcome;
+import org.restclient.gather.GatherResult.State;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs a batch of calls (usually mapped methods of gateways) with a global concurrency cap and gathers their
+ * outcomes. Calls are queued per route alias and started round-robin across aliases, so a large group of calls to
+ * one alias does not hold all slots while calls to other aliases wait, and each alias may also be capped:
+ * <pre>
+ * new ScatterGather&lt;Repo&gt;(8)
+ *         .aliasConcurrency(4)
+ *         .timeout(Duration.ofMillis(300))
+ *         .add("github-service", () -&gt; github.getRepo(owner, name))
+ *         .add("gitlab-service", () -&gt; gitlab.getRepo(owner, name))
+ *         .first(1);
+ * </pre>
+ * Only first element of a call is gathered - collect a {@code Flux} to list to gather all of it. Calls are started
+ * on subscription with its Reactor context, so a {@code Deadline} of the caller bounds them as well.
+ *
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+public class ScatterGather<T> {
+	private final int concurrency;
+	private final List<Call<T>> calls = new ArrayList<>();
+	private int aliasConcurrency = Integer.MAX_VALUE;
+	private Duration timeout;
+
+	/**
+	 * @param concurrency - max calls in flight
+	 */
+	public ScatterGather(int concurrency) {
+		if (concurrency <= 0) {
+			throw new IllegalArgumentException("Concurrency must be positive: " + concurrency);
+		}
+
+		this.concurrency = concurrency;
+	}
+
+	/**
+	 * @param aliasConcurrency - max calls in flight per route alias
+	 */
+	public ScatterGather<T> aliasConcurrency(int aliasConcurrency) {
+		if (aliasConcurrency <= 0) {
+			throw new IllegalArgumentException("Alias concurrency must be positive: " + aliasConcurrency);
+		}
+
+		this.aliasConcurrency = aliasConcurrency;
+		return this;
+	}
+
+	/**
+	 * @param timeout - default timeout of each call, counted from its start
+	 */
+	public ScatterGather<T> timeout(Duration timeout) {
+		this.timeout = timeout;
+		return this;
+	}
+
+	public ScatterGather<T> add(String alias, Supplier<? extends Publisher<? extends T>> call) {
+		return add(alias, null, call);
+	}
+
+	/**
+	 * @param alias   - route alias called, calls of same alias share its capacity
+	 * @param timeout - timeout of this call, null for default
+	 * @param call    - call started when scheduled
+	 */
+	public ScatterGather<T> add(String alias, Duration timeout, Supplier<? extends Publisher<? extends T>> call) {
+		calls.add(new Call<>(calls.size(), alias, timeout, call));
+		return this;
+	}
+
+	/**
+	 * Wait for all calls, failed ones do not stop others.
+	 */
+	public Mono<GatherResult<T>> all() {
+		return gather(calls.size(), false);
+	}
+
+	/**
+	 * Complete once required calls succeeded, or as soon as too many failed to reach it.
+	 *
+	 * @param required - successful calls needed
+	 */
+	public Mono<GatherResult<T>> first(int required) {
+		if (required <= 0 || required > calls.size()) {
+			throw new IllegalArgumentException("Required calls must be in 1.." + calls.size() + ": " + required);
+		}
+
+		return gather(required, true);
+	}
+
+	/**
+	 * Complete once majority of calls succeeded, or as soon as it can't.
+	 */
+	public Mono<GatherResult<T>> quorum() {
+		return first(calls.size() / 2 + 1);
+	}
+
+	private Mono<GatherResult<T>> gather(int required, boolean failFast) {
+		final List<Call<T>> snapshot = new ArrayList<>(calls);
+		return Mono.create(sink -> new Execution(snapshot, required, failFast, sink).start());
+	}
+
+	private static class Call<T> {
+		private final int index;
+		private final String alias;
+		private final Duration timeout;
+		private final Supplier<? extends Publisher<? extends T>> supplier;
+
+		private Call(int index, String alias, Duration timeout, Supplier<? extends Publisher<? extends T>> supplier) {
+			this.index = index;
+			this.alias = alias;
+			this.timeout = timeout;
+			this.supplier = supplier;
+		}
+	}
+
+	/**
+	 * State of one subscription, guarded by its monitor. Calls are started and the result emitted outside of it.
+	 */
+	private class Execution {
+		private final List<Call<T>> calls;
+		private final int required;
+		private final boolean failFast;
+		private final MonoSink<GatherResult<T>> sink;
+		private final Context context;
+
+		private final Map<String, Deque<Call<T>>> queues = new LinkedHashMap<>();
+		private final Map<String, Integer> inflight = new HashMap<>();
+		private final List<String> aliases;
+		private final State[] states;
+		private final Object[] values;
+		private final Throwable[] errors;
+		private final Disposable[] running;
+		// dispatch requests, only the thread which raised it from zero dispatches
+		private final AtomicInteger wip = new AtomicInteger();
+		private int cursor;
+		private int active;
+		private int succeeded;
+		private int failed;
+		private boolean done;
+
+		private Execution(List<Call<T>> calls, int required, boolean failFast, MonoSink<GatherResult<T>> sink) {
+			this.calls = calls;
+			this.required = required;
+			this.failFast = failFast;
+			this.sink = sink;
+			this.context = sink.currentContext();
+
+			calls.forEach(call -> queues.computeIfAbsent(call.alias, alias -> new ArrayDeque<>()).add(call));
+			aliases = new ArrayList<>(queues.keySet());
+			states = new State[calls.size()];
+			values = new Object[calls.size()];
+			errors = new Throwable[calls.size()];
+			running = new Disposable[calls.size()];
+		}
+
+		private void start() {
+			sink.onCancel(this::cancel);
+
+			if (calls.isEmpty()) {
+				sink.success(result());
+				return;
+			}
+
+			dispatch();
+		}
+
+		/**
+		 * Start calls up to capacity. Calls completing synchronously request another dispatch, which is served by
+		 * the loop already running instead of recursing, so stack depth does not grow with batch size.
+		 */
+		private void dispatch() {
+			if (wip.getAndIncrement() != 0) {
+				return;
+			}
+
+			int missed = 1;
+			do {
+				final List<Call<T>> started = new ArrayList<>();
+				synchronized (this) {
+					Call<T> call;
+					while (!done && active < concurrency && (call = poll()) != null) {
+						active++;
+						inflight.merge(call.alias, 1, Integer::sum);
+						started.add(call);
+					}
+				}
+
+				started.forEach(this::subscribe);
+				missed = wip.addAndGet(-missed);
+			} while (missed != 0);
+		}
+
+		/**
+		 * Next call of the first alias after the last served one which has calls queued and free capacity.
+		 */
+		private Call<T> poll() {
+			for (int i = 0; i < aliases.size(); i++) {
+				final int position = (cursor + i) % aliases.size();
+				final String alias = aliases.get(position);
+				final Deque<Call<T>> queue = queues.get(alias);
+				if (!queue.isEmpty() && inflight.getOrDefault(alias, 0) < aliasConcurrency) {
+					cursor = position + 1;
+					return queue.poll();
+				}
+			}
+
+			return null;
+		}
+
+		private void subscribe(Call<T> call) {
+			final Duration callTimeout = call.timeout != null ? call.timeout : timeout;
+
+			Mono<T> mono = Mono.defer(() -> Mono.<T>from(call.supplier.get()));
+			if (callTimeout != null) {
+				mono = mono.timeout(callTimeout);
+			}
+
+			final Disposable disposable = mono
+					.subscriberContext(context)
+					.subscribe(value -> values[call.index] = value,
+							e -> complete(call, e),
+							() -> complete(call, null));
+
+			final boolean cancelled;
+			synchronized (this) {
+				running[call.index] = disposable;
+				cancelled = done && states[call.index] == State.CANCELLED;
+			}
+
+			if (cancelled) {
+				disposable.dispose();
+			}
+		}
+
+		private void complete(Call<T> call, Throwable error) {
+			final List<Disposable> cancelled;
+			synchronized (this) {
+				if (done) {
+					return;
+				}
+
+				active--;
+				inflight.merge(call.alias, -1, Integer::sum);
+				if (error == null) {
+					states[call.index] = State.SUCCEEDED;
+					succeeded++;
+				} else {
+					states[call.index] = State.FAILED;
+					errors[call.index] = error;
+					failed++;
+				}
+
+				final boolean finished = succeeded + failed == calls.size();
+				final boolean reached = failFast && succeeded >= required;
+				final boolean unreachable = failFast && calls.size() - failed < required;
+				if (!finished && !reached && !unreachable) {
+					cancelled = null;
+				} else {
+					cancelled = finish();
+				}
+			}
+
+			if (cancelled == null) {
+				dispatch();
+				return;
+			}
+
+			cancelled.forEach(Disposable::dispose);
+			sink.success(result());
+		}
+
+		private void cancel() {
+			final List<Disposable> cancelled;
+			synchronized (this) {
+				if (done) {
+					return;
+				}
+
+				cancelled = finish();
+			}
+
+			cancelled.forEach(Disposable::dispose);
+		}
+
+		/**
+		 * Mark calls not completed yet as cancelled, must hold monitor.
+		 *
+		 * @return subscriptions of calls in flight
+		 */
+		private List<Disposable> finish() {
+			done = true;
+
+			final List<Disposable> cancelled = new ArrayList<>();
+			for (int i = 0; i < states.length; i++) {
+				if (states[i] == null) {
+					states[i] = State.CANCELLED;
+					if (running[i] != null) {
+						cancelled.add(running[i]);
+					}
+				}
+			}
+			return cancelled;
+		}
+
+		@SuppressWarnings("unchecked")
+		private synchronized GatherResult<T> result() {
+			final List<Outcome<T>> outcomes = new ArrayList<>(calls.size());
+			for (Call<T> call : calls) {
+				final State state = states[call.index];
+				outcomes.add(new Outcome<>(call.index, call.alias, state,
+						state == State.SUCCEEDED ? (T) values[call.index] : null,
+						errors[call.index]));
+			}
+			return new GatherResult<>(required, outcomes);
+		}
+	}
+}
@@ -0,0 +1,305 @@
+package org.restclient.metrics;
+
+import io.micrometer.core.instrument.*;
+import org.reactivestreams.Publisher;
+import org.restclient.client.RouteClient;
+import org.restclient.client.RouteClientCustomizer;
+import org.restclient.config.ServicesConfiguration.RouteSettings;
+import org.restclient.model.FallbackEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.client.reactive.ClientHttpRequest;
+import org.springframework.http.client.reactive.ClientHttpRequestDecorator;
+import org.springframework.lang.NonNull;
+import org.springframework.web.reactive.function.BodyInserter;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+import reactor.netty.ConnectionObserver;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Micrometer meters of routes:
+ * <ul>
+ * <li>restclient.requests - timer of exchanges, from request until response status and headers arrive</li>
+ * <li>restclient.request.size, restclient.response.size - payload bytes, before compression; response size is
+ * recorded once its body is consumed, so a response read as {@link ClientResponse} and never drained has no sample</li>
+ * <li>restclient.fallbacks - counter of fallback method calls</li>
+ * <li>restclient.pool.connections (state active/idle), restclient.pool.pending - gauges of route pools</li>
+ * </ul>
+ * A changed route gets a new client while the old one drains, pool gauges of alias sum up all its clients not
+ * disposed yet and are removed with the last of them.
+ * Exchange meters are tagged with alias, mapped method, http method, uri template, status, outcome and exception,
+ * never with expanded uri, so cardinality is bound by mappings.
+ *
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+public class RestClientMetrics implements RouteClientCustomizer, ApplicationListener<FallbackEvent> {
+	private static final String NONE = "none";
+	private static final int NO_STATUS = -1;
+
+	private final MeterRegistry registry;
+	private final boolean percentileHistogram;
+	// by settings instance a client was created with, each client of an alias gets its own; guarded by this
+	private final Map<RouteSettings, PoolStats> pools = new IdentityHashMap<>();
+	private final Map<String, List<Meter>> gauges = new HashMap<>();
+
+	public RestClientMetrics(MeterRegistry registry, boolean percentileHistogram) {
+		this.registry = registry;
+		this.percentileHistogram = percentileHistogram;
+	}
+
+	@Override
+	public HttpClient customize(RouteSettings settings, HttpClient httpClient) {
+		final PoolStats stats = getPoolStats(settings);
+		return httpClient.observe(stats);
+	}
+
+	@Override
+	public void customize(RouteSettings settings, WebClient.Builder builder) {
+		builder.filter(new MetricsFilter(settings.getAlias(), getPoolStats(settings)));
+	}
+
+	@Override
+	public synchronized void dispose(RouteSettings settings) {
+		final PoolStats stats = pools.remove(settings);
+		if (stats == null) {
+			return;
+		}
+
+		if (pools.values().stream().noneMatch(other -> other.alias.equals(stats.alias))) {
+			gauges.remove(stats.alias).forEach(registry::remove);
+		}
+	}
+
+	@Override
+	public void onApplicationEvent(@NonNull FallbackEvent event) {
+		Counter.builder("restclient.fallbacks")
+				.tags("alias", event.getAlias(),
+						"mapping", event.getMethodName(),
+						"exception", event.getCause().getClass().getSimpleName())
+				.register(registry)
+				.increment();
+	}
+
+	private synchronized PoolStats getPoolStats(RouteSettings settings) {
+		return pools.computeIfAbsent(settings, key -> {
+			gauges.computeIfAbsent(settings.getAlias(), this::registerGauges);
+			return new PoolStats(settings.getAlias());
+		});
+	}
+
+	// gauges keep weak references only, metrics bean outlives them
+	private List<Meter> registerGauges(String alias) {
+		return Arrays.asList(
+				Gauge.builder("restclient.pool.connections", this, metrics -> metrics.sum(alias, PoolStats::getActive))
+						.tags("alias", alias, "state", "active")
+						.register(registry),
+				Gauge.builder("restclient.pool.connections", this, metrics -> metrics.sum(alias, PoolStats::getIdle))
+						.tags("alias", alias, "state", "idle")
+						.register(registry),
+				Gauge.builder("restclient.pool.pending", this, metrics -> metrics.sum(alias, PoolStats::getPending))
+						.tags("alias", alias)
+						.register(registry));
+	}
+
+	private synchronized double sum(String alias, ToDoubleFunction<PoolStats> value) {
+		return pools.values()
+				.stream()
+				.filter(stats -> stats.alias.equals(alias))
+				.mapToDouble(value)
+				.sum();
+	}
+
+	private static String attribute(ClientRequest request, String name) {
+		final Object value = request.attributes().get(name);
+		return value == null ? NONE : value.toString();
+	}
+
+	private static String outcome(int status) {
+		switch (status / 100) {
+			case 1:
+				return "INFORMATIONAL";
+			case 2:
+				return "SUCCESS";
+			case 3:
+				return "REDIRECTION";
+			case 4:
+				return "CLIENT_ERROR";
+			case 5:
+				return "SERVER_ERROR";
+			default:
+				return "UNKNOWN";
+		}
+	}
+
+	private class MetricsFilter implements ExchangeFilterFunction {
+		private final String alias;
+		private final PoolStats stats;
+
+		private MetricsFilter(String alias, PoolStats stats) {
+			this.alias = alias;
+			this.stats = stats;
+		}
+
+		@Override
+		@NonNull
+		public Mono<ClientResponse> filter(@NonNull ClientRequest request, @NonNull ExchangeFunction next) {
+			return Mono.defer(() -> {
+				final Exchange exchange = new Exchange(request);
+				final BodyInserter<?, ? super ClientHttpRequest> body = request.body();
+				final ClientRequest counted = ClientRequest.from(request)
+						.body((outputMessage, context) -> body.insert(new CountingRequest(outputMessage, exchange), context))
+						.build();
+
+				return next.exchange(counted)
+						.map(response -> {
+							final Tags tags = exchange.record(response.rawStatusCode(), NONE);
+							return ClientResponse.from(response)
+									.body(response.bodyToFlux(DataBuffer.class)
+											.doOnNext(buffer -> exchange.responseBytes.addAndGet(buffer.readableByteCount()))
+											.doFinally(signal -> exchange.recordBody(tags)))
+									.build();
+						})
+						.doOnError(e -> exchange.record(NO_STATUS, e.getClass().getSimpleName()))
+						.doOnCancel(() -> exchange.record(NO_STATUS, "CancellationException"));
+			});
+		}
+
+		private class Exchange {
+			private final ClientRequest request;
+			private final long start = System.nanoTime();
+			private final AtomicLong requestBytes = new AtomicLong();
+			private final AtomicLong responseBytes = new AtomicLong();
+			private final AtomicBoolean recorded = new AtomicBoolean();
+
+			private Exchange(ClientRequest request) {
+				this.request = request;
+				stats.inflight.incrementAndGet();
+			}
+
+			/**
+			 * Record exchange once, when response arrives or exchange fails.
+			 *
+			 * @return tags of recorded exchange, null if it was recorded already
+			 */
+			private Tags record(int status, String exception) {
+				if (!recorded.compareAndSet(false, true)) {
+					return null;
+				}
+
+				final long duration = System.nanoTime() - start;
+				stats.inflight.decrementAndGet();
+
+				final Tags tags = Tags.of(
+						"alias", alias,
+						"mapping", attribute(request, RouteClient.METHOD_ATTRIBUTE),
+						"method", request.method().name(),
+						"uri", attribute(request, RouteClient.URI_TEMPLATE_ATTRIBUTE),
+						"status", status == NO_STATUS ? "CLIENT_ERROR" : String.valueOf(status),
+						"outcome", outcome(status),
+						"exception", exception);
+
+				Timer.builder("restclient.requests")
+						.tags(tags)
+						.publishPercentileHistogram(percentileHistogram)
+						.register(registry)
+						.record(duration, TimeUnit.NANOSECONDS);
+				DistributionSummary.builder("restclient.request.size")
+						.baseUnit("bytes")
+						.tags(tags)
+						.register(registry)
+						.record(requestBytes.get());
+				return tags;
+			}
+
+			private void recordBody(Tags tags) {
+				if (tags == null) {
+					return;
+				}
+
+				DistributionSummary.builder("restclient.response.size")
+						.baseUnit("bytes")
+						.tags(tags)
+						.register(registry)
+						.record(responseBytes.get());
+			}
+		}
+
+		private class CountingRequest extends ClientHttpRequestDecorator {
+			private final Exchange exchange;
+
+			private CountingRequest(ClientHttpRequest delegate, Exchange exchange) {
+				super(delegate);
+				this.exchange = exchange;
+			}
+
+			@Override
+			@NonNull
+			public Mono<Void> writeWith(@NonNull Publisher<? extends DataBuffer> body) {
+				return super.writeWith(Flux.<DataBuffer>from(body)
+						.doOnNext(buffer -> exchange.requestBytes.addAndGet(buffer.readableByteCount())));
+			}
+		}
+	}
+
+	/**
+	 * Connections of route pool. A new connection is reported as connected, a pooled one as acquired, both are
+	 * released back to pool.
+	 */
+	private static class PoolStats implements ConnectionObserver {
+		private final String alias;
+		private final AtomicInteger open = new AtomicInteger();
+		private final AtomicInteger active = new AtomicInteger();
+		private final AtomicInteger inflight = new AtomicInteger();
+
+		private PoolStats(String alias) {
+			this.alias = alias;
+		}
+
+		@Override
+		public void onStateChange(@NonNull Connection connection, @NonNull State newState) {
+			if (newState == State.CONNECTED) {
+				open.incrementAndGet();
+				active.incrementAndGet();
+				connection.channel().closeFuture().addListener(future -> open.decrementAndGet());
+			} else if (newState == State.ACQUIRED) {
+				active.incrementAndGet();
+			} else if (newState == State.RELEASED) {
+				active.decrementAndGet();
+			}
+		}
+
+		private double getActive() {
+			return Math.max(0, active.get());
+		}
+
+		private double getIdle() {
+			return Math.max(0, open.get() - active.get());
+		}
+
+		/**
+		 * Exchanges in progress which do not hold a connection, waiting for one from pool or for stream permit.
+		 */
+		private double getPending() {
+			return Math.max(0, inflight.get() - active.get());
+		}
+	}
+}
@@ -0,0 +1,34 @@
+package org.restclient.model;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when a fallback method is invoked instead of route response.
+ *
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+public class FallbackEvent extends ApplicationEvent {
+	private final String alias;
+	private final String methodName;
+	private final Throwable cause;
+
+	public FallbackEvent(Object source, String alias, String methodName, Throwable cause) {
+		super(source);
+		this.alias = alias;
+		this.methodName = methodName;
+		this.cause = cause;
+	}
+
+	public String getAlias() {
+		return alias;
+	}
+
+	public String getMethodName() {
+		return methodName;
+	}
+
+	public Throwable getCause() {
+		return cause;
+	}
+}
@@ -17,11 +17,19 @@ public class MappingMetadata {
 	private final String url;
 	private final HttpHeaders httpHeaders;
 	private final String fallbackMethod;
+	private final ResponseMode responseMode;
 
 	public String getMethodName() {
 		return method.getName();
 	}
 
+	/**
+	 * Route path template without host, e.g. /users/${userName}/repos - low cardinality name of call.
+	 */
+	public String getUriTemplate() {
+		return url.substring(url.indexOf('}') + 1);
+	}
+
 	public Class<?> getReturnType() {
 		return method.getReturnType();
 	}
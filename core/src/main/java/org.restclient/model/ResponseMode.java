@@ -0,0 +1,72 @@
+package org.restclient.model;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+
+/**
+ * How the response of a mapped method is handed over to the caller.
+ *
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+public enum ResponseMode {
+	/**
+	 * Body is decoded by the configured codecs into {@link org.restclient.annotations.Type} objects.
+	 */
+	DECODED,
+	/**
+	 * {@code Flux<DataBuffer>} - pooled response buffers are streamed as is, the subscriber owns and must release them.
+	 */
+	RAW_BUFFERS,
+	/**
+	 * {@code Mono<ResponseEntity<Flux<DataBuffer>>>} - status and end-to-end headers with a raw body stream.
+	 */
+	RAW_ENTITY,
+	/**
+	 * {@code Mono<ClientResponse>} - untouched exchange result, the subscriber must consume or release the body.
+	 */
+	CLIENT_RESPONSE;
+
+	/**
+	 * Resolve response mode by generic return type of mapped method.
+	 *
+	 * @param method - mapped method
+	 * @return response mode, {@link #DECODED} if return type is not a passthrough one
+	 */
+	public static ResponseMode of(Method method) {
+		final ResolvableType returnType = ResolvableType.forMethodReturnType(method);
+		final Class<?> wrapper = returnType.resolve();
+		final ResolvableType element = returnType.getGeneric(0);
+
+		if (wrapper == Flux.class && isDataBuffer(element)) {
+			return RAW_BUFFERS;
+		}
+
+		if (wrapper == Mono.class) {
+			final Class<?> elementClass = element.resolve();
+			if (elementClass != null && ClientResponse.class.isAssignableFrom(elementClass)) {
+				return CLIENT_RESPONSE;
+			}
+
+			if (elementClass == ResponseEntity.class) {
+				final ResolvableType entityBody = element.getGeneric(0);
+				if (entityBody.resolve() == Flux.class && isDataBuffer(entityBody.getGeneric(0))) {
+					return RAW_ENTITY;
+				}
+			}
+		}
+
+		return DECODED;
+	}
+
+	private static boolean isDataBuffer(ResolvableType type) {
+		final Class<?> resolved = type.resolve();
+		return resolved != null && DataBuffer.class.isAssignableFrom(resolved);
+	}
+}
@@ -0,0 +1,15 @@
+package org.restclient.model;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Publish to rebuild routes from current environment, e.g. after services.* properties were changed.
+ *
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+public class RoutesRefreshEvent extends ApplicationEvent {
+	public RoutesRefreshEvent(Object source) {
+		super(source);
+	}
+}
@@ -0,0 +1,64 @@
+package org.restclient.tracing;
+
+import lombok.extern.slf4j.Slf4j;
+import org.restclient.tracing.Span.Phase;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logs spans as one key=value line each, at most given count per second; spans over limit are dropped and counted.
+ *
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+@Slf4j
+public class LoggingSpanSink implements SpanSink {
+	private final int maxPerSecond;
+	private final AtomicLong window = new AtomicLong();
+	private final AtomicInteger count = new AtomicInteger();
+	private final AtomicLong dropped = new AtomicLong();
+
+	public LoggingSpanSink(int maxPerSecond) {
+		this.maxPerSecond = maxPerSecond;
+	}
+
+	@Override
+	public void report(Span span) {
+		if (!log.isInfoEnabled()) {
+			return;
+		}
+
+		if (!tryAcquire()) {
+			dropped.incrementAndGet();
+			return;
+		}
+
+		log.info("trace={} span={} parent={} alias={} mapping={} method={} uri={} status={} error={} total_ms={} binding_ms={} " +
+						"interceptors_ms={} acquire_ms={} ttfb_ms={} body_ms={} decode_ms={} headers={}",
+				span.getTraceId(), span.getSpanId(),
+				span.getParentId() == null ? "none" : span.getParentId(), span.getAlias(), span.getMapping(), span.getHttpMethod(),
+				span.getUriTemplate(), span.getStatus(), span.getError() == null ? "none" : span.getError().getClass().getSimpleName(),
+				millis(span.getTotal()), millis(span.getDuration(Phase.BINDING)), millis(span.getDuration(Phase.INTERCEPTORS)),
+				millis(span.getDuration(Phase.ACQUIRE)), millis(span.getDuration(Phase.TTFB)), millis(span.getDuration(Phase.BODY)),
+				millis(span.getDuration(Phase.DECODE)), span.getRequestHeaders());
+	}
+
+	private boolean tryAcquire() {
+		final long second = System.currentTimeMillis() / 1000;
+		final long current = window.get();
+		if (second != current && window.compareAndSet(current, second)) {
+			count.set(0);
+			final long droppedSpans = dropped.getAndSet(0);
+			if (droppedSpans > 0) {
+				log.info("Dropped {} spans over limit of {} per second", droppedSpans, maxPerSecond);
+			}
+		}
+
+		return count.incrementAndGet() <= maxPerSecond;
+	}
+
+	private static double millis(long nanos) {
+		return nanos < 0 ? -1 : Math.round(nanos / 1000.0) / 1000.0;
+	}
+}
@@ -0,0 +1,206 @@
+package org.restclient.tracing;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Timings of one sampled mapped method call. Phases are marked in order, each duration is counted from the previous
+ * marked phase (or call start), so durations sum up to the call time. Phases are marked on event loop threads, so
+ * the span is safe to read from any thread once it is reported.
+ * <p>
+ * Span starts a new trace, unless it joins parent trace of the Reactor context the call is subscribed with. A span
+ * of call whose parent did not sample the trace is discarded - it is not reported and propagates the trace unsampled.
+ *
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+public class Span {
+	/**
+	 * Request attribute holding the span of a sampled call.
+	 */
+	public static final String ATTRIBUTE = Span.class.getName();
+
+	public enum Phase {
+		/**
+		 * Arguments bound and url expanded.
+		 */
+		BINDING,
+		/**
+		 * Interceptors pre-handled the request.
+		 */
+		INTERCEPTORS,
+		/**
+		 * Connection acquired from pool (or opened) and request is being written.
+		 */
+		ACQUIRE,
+		/**
+		 * Response status and headers received.
+		 */
+		TTFB,
+		/**
+		 * Response body received.
+		 */
+		BODY,
+		/**
+		 * Response body decoded and emitted to subscriber.
+		 */
+		DECODE
+	}
+
+	private final String spanId;
+	private final String alias;
+	private final String mapping;
+	private final HttpMethod httpMethod;
+	private final String uriTemplate;
+	private final long start = System.nanoTime();
+	private final AtomicLongArray marks = new AtomicLongArray(Phase.values().length);
+	private final AtomicBoolean finished = new AtomicBoolean();
+	private volatile String traceId;
+	private volatile String parentId;
+	private volatile boolean sampled = true;
+	private volatile long end;
+	private volatile int status = -1;
+	private volatile Throwable error;
+	private volatile HttpHeaders requestHeaders;
+
+	Span(String alias, String mapping, HttpMethod httpMethod, String uriTemplate) {
+		this.traceId = Traceparent.newId() + Traceparent.newId();
+		this.spanId = Traceparent.newId();
+		this.alias = alias;
+		this.mapping = mapping;
+		this.httpMethod = httpMethod;
+		this.uriTemplate = uriTemplate;
+	}
+
+	public Span mark(Phase phase) {
+		marks.set(phase.ordinal(), System.nanoTime());
+		return this;
+	}
+
+	/**
+	 * Duration of phase in nanos, -1 if phase was not reached.
+	 */
+	public long getDuration(Phase phase) {
+		final long mark = marks.get(phase.ordinal());
+		if (mark == 0) {
+			return -1;
+		}
+
+		long previous = start;
+		for (int i = phase.ordinal() - 1; i >= 0; i--) {
+			final long previousMark = marks.get(i);
+			if (previousMark != 0) {
+				previous = previousMark;
+				break;
+			}
+		}
+		return mark - previous;
+	}
+
+	/**
+	 * Call time in nanos, -1 until span is finished.
+	 */
+	public long getTotal() {
+		return end == 0 ? -1 : end - start;
+	}
+
+	/**
+	 * W3C trace context header value of span.
+	 */
+	public String getTraceparent() {
+		return Traceparent.format(traceId, spanId, sampled);
+	}
+
+	public String getTraceId() {
+		return traceId;
+	}
+
+	public String getSpanId() {
+		return spanId;
+	}
+
+	/**
+	 * Span id of parent, null if span started the trace.
+	 */
+	@Nullable
+	public String getParentId() {
+		return parentId;
+	}
+
+	public String getAlias() {
+		return alias;
+	}
+
+	public String getMapping() {
+		return mapping;
+	}
+
+	public HttpMethod getHttpMethod() {
+		return httpMethod;
+	}
+
+	public String getUriTemplate() {
+		return uriTemplate;
+	}
+
+	public int getStatus() {
+		return status;
+	}
+
+	void setStatus(int status) {
+		this.status = status;
+	}
+
+	@Nullable
+	public Throwable getError() {
+		return error;
+	}
+
+	void setError(Throwable error) {
+		this.error = error;
+	}
+
+	/**
+	 * Request headers as sent, values of sensitive headers are redacted.
+	 */
+	@Nullable
+	public HttpHeaders getRequestHeaders() {
+		return requestHeaders;
+	}
+
+	void setRequestHeaders(HttpHeaders requestHeaders) {
+		this.requestHeaders = requestHeaders;
+	}
+
+	/**
+	 * Whether span is reported, false once its parent turned out not to sample the trace.
+	 */
+	public boolean isSampled() {
+		return sampled;
+	}
+
+	/**
+	 * Continue trace of parent and follow its sampling decision, must be called before the traceparent header is sent.
+	 *
+	 * @param parent - parent of call
+	 */
+	Span join(Traceparent parent) {
+		traceId = parent.getTraceId();
+		parentId = parent.getSpanId();
+		sampled = parent.isSampled();
+		return this;
+	}
+
+	boolean finish() {
+		if (!finished.compareAndSet(false, true)) {
+			return false;
+		}
+
+		end = System.nanoTime();
+		return true;
+	}
+}
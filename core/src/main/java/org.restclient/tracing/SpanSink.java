@@ -0,0 +1,12 @@
+package org.restclient.tracing;
+
+/**
+ * Receives finished sampled spans. Called on the thread completing the call, implementations must not block.
+ *
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+@FunctionalInterface
+public interface SpanSink {
+	void report(Span span);
+}
@@ -0,0 +1,80 @@
+package org.restclient.tracing;
+
+import org.springframework.lang.Nullable;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Valid W3C trace context header value of a parent: trace id, its span id and whether it sampled the trace.
+ *
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+final class Traceparent {
+	private static final Pattern PATTERN = Pattern.compile("[0-9a-f]{2}-([0-9a-f]{32})-([0-9a-f]{16})-([0-9a-f]{2})");
+	private static final String INVALID_TRACE_ID = "00000000000000000000000000000000";
+	private static final String INVALID_SPAN_ID = "0000000000000000";
+	private static final int SAMPLED = 0x01;
+
+	private final String traceId;
+	private final String spanId;
+	private final boolean sampled;
+
+	private Traceparent(String traceId, String spanId, boolean sampled) {
+		this.traceId = traceId;
+		this.spanId = spanId;
+		this.sampled = sampled;
+	}
+
+	/**
+	 * @param value - header value, may be absent
+	 * @return parent or null if value is absent or not valid
+	 */
+	@Nullable
+	static Traceparent parse(@Nullable String value) {
+		if (value == null) {
+			return null;
+		}
+
+		final Matcher matcher = PATTERN.matcher(value.trim());
+		if (!matcher.matches() || INVALID_TRACE_ID.equals(matcher.group(1)) || INVALID_SPAN_ID.equals(matcher.group(2))) {
+			return null;
+		}
+
+		final boolean sampled = (Integer.parseInt(matcher.group(3), 16) & SAMPLED) != 0;
+		return new Traceparent(matcher.group(1), matcher.group(2), sampled);
+	}
+
+	static String format(String traceId, String spanId, boolean sampled) {
+		return "00-" + traceId + "-" + spanId + (sampled ? "-01" : "-00");
+	}
+
+	/**
+	 * Random span id, 16 hex digits.
+	 */
+	static String newId() {
+		final String hex = Long.toHexString(ThreadLocalRandom.current().nextLong());
+		return hex.length() == 16 ? hex : INVALID_SPAN_ID.substring(hex.length()) + hex;
+	}
+
+	/**
+	 * Header value of a child call which is not sampled: same trace under a new span id.
+	 */
+	String unsampledChild() {
+		return format(traceId, newId(), false);
+	}
+
+	String getTraceId() {
+		return traceId;
+	}
+
+	String getSpanId() {
+		return spanId;
+	}
+
+	boolean isSampled() {
+		return sampled;
+	}
+}
@@ -0,0 +1,29 @@
+package org.restclient.tracing;
+
+import org.springframework.lang.NonNull;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Puts {@link Tracer#TRACEPARENT} header of inbound request to Reactor context, so sampled mapped method calls made
+ * while handling it continue the trace of the caller. Not registered automatically - declare it as a bean in a
+ * WebFlux application.
+ *
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+public class TraceparentWebFilter implements WebFilter {
+	@Override
+	@NonNull
+	public Mono<Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
+		final String traceparent = exchange.getRequest().getHeaders().getFirst(Tracer.TRACEPARENT);
+		if (traceparent == null) {
+			return chain.filter(exchange);
+		}
+
+		return chain.filter(exchange)
+				.subscriberContext(Tracer.toContext(traceparent));
+	}
+}
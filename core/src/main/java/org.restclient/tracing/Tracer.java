@@ -0,0 +1,205 @@
+package org.restclient.tracing;
+
+import org.restclient.client.RouteClient;
+import org.restclient.client.RouteClientCustomizer;
+import org.restclient.config.ServicesConfiguration.RouteSettings;
+import org.restclient.model.MappingMetadata;
+import org.restclient.tracing.Span.Phase;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.util.context.Context;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Samples mapped method calls into {@link Span}s. A call without parent trace is sampled by rate: when it is not
+ * sampled, no span, headers or timings are created for it and the filters pass it through.
+ * <p>
+ * Sampled calls send W3C {@code traceparent} header and are reported to sinks when the call completes. A call
+ * subscribed with a parent trace in Reactor context (see {@link #toContext(String)} and {@link TraceparentWebFilter})
+ * continues that trace and follows its sampling flag instead of rate - also with rate 0 - and forwards the parent
+ * with unsampled flag when it is not sampled, so downstream services keep the trace.
+ *
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+public class Tracer implements RouteClientCustomizer {
+	public static final String TRACEPARENT = "traceparent";
+	private static final String REDACTED = "***";
+
+	private final double samplingRate;
+	private final Set<String> redactedHeaders;
+	private final List<SpanSink> sinks;
+
+	/**
+	 * @param samplingRate    - share of sampled calls, from 0 to 1
+	 * @param redactedHeaders - headers whose values are never reported
+	 * @param sinks           - receivers of finished spans
+	 */
+	public Tracer(double samplingRate, Collection<String> redactedHeaders, List<SpanSink> sinks) {
+		this.samplingRate = samplingRate;
+		this.redactedHeaders = redactedHeaders.stream().map(name -> name.toLowerCase(Locale.ROOT)).collect(Collectors.toSet());
+		this.sinks = sinks;
+	}
+
+	/**
+	 * Context making calls subscribed with it children of the parent trace.
+	 *
+	 * @param traceparent - W3C trace context header value of parent, e.g. of inbound request
+	 */
+	public static Context toContext(String traceparent) {
+		return Context.of(TRACEPARENT, traceparent);
+	}
+
+	/**
+	 * Start span of call if it is sampled by rate. Parent trace the call is subscribed with overrides the decision.
+	 *
+	 * @return span or null if call is not sampled
+	 */
+	@Nullable
+	public Span start(String alias, MappingMetadata metadata) {
+		if (samplingRate <= 0 || (samplingRate < 1 && ThreadLocalRandom.current().nextDouble() >= samplingRate)) {
+			return null;
+		}
+
+		return new Span(alias, metadata.getMethodName(), metadata.getHttpMethod(), metadata.getUriTemplate());
+	}
+
+	/**
+	 * Finish span and report it, only the first call has effect.
+	 *
+	 * @param span  - span of call
+	 * @param error - error call completed with, if any
+	 */
+	public void finish(Span span, @Nullable Throwable error) {
+		if (error != null && span.getError() == null) {
+			span.setError(error);
+		}
+
+		if (span.finish() && span.isSampled()) {
+			sinks.forEach(sink -> sink.report(span));
+		}
+	}
+
+	@Override
+	public HttpClient customize(RouteSettings settings, HttpClient httpClient) {
+		return httpClient.doOnRequest((request, connection) -> {
+			final Span span = request.currentContext().getOrDefault(Span.class, null);
+			if (span != null) {
+				span.mark(Phase.ACQUIRE);
+			}
+		});
+	}
+
+	@Override
+	public void customize(RouteSettings settings, WebClient.Builder builder) {
+		// also with rate 0, parent trace may sample the call
+		builder.filter(new TracingFilter(settings.getAlias()));
+	}
+
+	private HttpHeaders redact(HttpHeaders headers) {
+		final HttpHeaders redacted = new HttpHeaders();
+		headers.forEach((name, values) -> {
+			if (redactedHeaders.contains(name.toLowerCase(Locale.ROOT))) {
+				redacted.add(name, REDACTED);
+			} else {
+				redacted.put(name, values);
+			}
+		});
+		return redacted;
+	}
+
+	/**
+	 * Propagates trace context and marks network phases of sampled calls. A parent trace in Reactor context decides
+	 * sampling of call on its own: a sampled parent gets a span even for call not sampled by rate (the span starts
+	 * here and is reported once response body is consumed), an unsampled parent discards span of call. Parent is
+	 * forwarded either way.
+	 */
+	private class TracingFilter implements ExchangeFilterFunction {
+		private final String alias;
+
+		private TracingFilter(String alias) {
+			this.alias = alias;
+		}
+
+		@Override
+		@NonNull
+		public Mono<ClientResponse> filter(@NonNull ClientRequest request, @NonNull ExchangeFunction next) {
+			final Object attribute = request.attributes().get(Span.ATTRIBUTE);
+			final Span span = attribute instanceof Span ? (Span) attribute : null;
+
+			return Mono.subscriberContext().flatMap(context -> {
+				final Traceparent parent = Traceparent.parse(context.getOrDefault(TRACEPARENT, null));
+				if (parent == null) {
+					return span == null ? next.exchange(request) : exchange(request, next, span, false);
+				} else if (span != null) {
+					return exchange(request, next, span.join(parent), false);
+				} else if (parent.isSampled()) {
+					return exchange(request, next, start(request).join(parent), true);
+				}
+
+				return next.exchange(ClientRequest.from(request)
+						.headers(headers -> headers.set(TRACEPARENT, parent.unsampledChild()))
+						.build());
+			});
+		}
+
+		private Span start(ClientRequest request) {
+			final Object mapping = request.attributes().get(RouteClient.METHOD_ATTRIBUTE);
+			final Object uriTemplate = request.attributes().get(RouteClient.URI_TEMPLATE_ATTRIBUTE);
+			return new Span(alias, mapping == null ? null : mapping.toString(), request.method(),
+					uriTemplate == null ? null : uriTemplate.toString());
+		}
+
+		/**
+		 * @param owned - span was started by filter, so it is finished here too
+		 */
+		private Mono<ClientResponse> exchange(ClientRequest request, ExchangeFunction next, Span span, boolean owned) {
+			return next.exchange(traced(request, span))
+					.map(response -> {
+						span.mark(Phase.TTFB);
+						span.setStatus(response.rawStatusCode());
+
+						Flux<DataBuffer> body = response.bodyToFlux(DataBuffer.class)
+								.doOnComplete(() -> span.mark(Phase.BODY));
+						if (owned) {
+							body = body.doOnError(e -> finish(span, e))
+									.doFinally(signal -> finish(span, null));
+						}
+						return ClientResponse.from(response)
+								.body(body)
+								.build();
+					})
+					.doOnError(e -> finish(span, e))
+					.doOnCancel(() -> {
+						if (owned) {
+							finish(span, null);
+						}
+					})
+					.subscriberContext(context -> context.put(Span.class, span));
+		}
+
+		private ClientRequest traced(ClientRequest request, Span span) {
+			final ClientRequest traced = ClientRequest.from(request)
+					.headers(headers -> headers.set(TRACEPARENT, span.getTraceparent()))
+					.build();
+			span.setRequestHeaders(redact(traced.headers()));
+			return traced;
+		}
+	}
+}
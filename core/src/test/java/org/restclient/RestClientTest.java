@@ -1,31 +1,62 @@
 package org.restclient;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.restclient.gateway.RestGateway;
+import org.restclient.stub.StubServer;
+import org.restclient.stub.StubServerInitializer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.json.AutoConfigureJsonTesters;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 
+import static org.junit.Assert.*;
+
 /**
  * @author: GenCloud
  * @created: 2019/08
  */
 @RunWith(SpringRunner.class)
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK, classes = SpringApplicationTest.class)
+@ContextConfiguration(initializers = StubServerInitializer.class)
 @AutoConfigureMockMvc
 @AutoConfigureJsonTesters
+@Import(RestClientTest.MeterRegistryConfiguration.class)
 public class RestClientTest {
 	@Autowired
 	@SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
 	private RestGateway restGateway;
 
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Before
+	public void setUp() {
+		StubServer.shared().reset();
+	}
+
 	@Test
 	public void test_getRepoInfo() {
 		final Mono<ArrayList> response = restGateway.getRepos("gencloud");
@@ -36,4 +67,103 @@ public class RestClientTest {
 				.expectComplete()
 				.verify();
 	}
+
+	@Test
+	public void test_getRepoInfoRaw() {
+		final Flux<DataBuffer> response = restGateway.getReposRaw("gencloud");
+
+		final Mono<Integer> size = response
+				.map(buffer -> {
+					final int count = buffer.readableByteCount();
+					DataBufferUtils.release(buffer);
+					return count;
+				})
+				.reduce(0, Integer::sum);
+
+		StepVerifier.create(size)
+				.expectSubscription()
+				.expectNextMatches(s -> s > 0)
+				.expectComplete()
+				.verify();
+	}
+
+	@Test
+	public void test_getRepoInfoEntity() {
+		final ResponseEntity<Flux<DataBuffer>> entity = restGateway.getReposEntity("gencloud").block();
+
+		assertNotNull(entity);
+		assertEquals(HttpStatus.OK, entity.getStatusCode());
+		assertEquals(MediaType.APPLICATION_JSON, entity.getHeaders().getContentType());
+		assertEquals("1", entity.getHeaders().getFirst(StubServer.REQUEST_HEADER));
+		assertFalse(entity.getHeaders().containsKey(HttpHeaders.TRANSFER_ENCODING));
+
+		final String body = read(entity.getBody());
+		assertTrue(body.startsWith("[{\"id\":0"));
+		assertTrue(body.endsWith("}]"));
+	}
+
+	@Test
+	public void test_getRepoInfoResponse() {
+		final ClientResponse response = restGateway.getReposResponse("gencloud").block();
+
+		assertNotNull(response);
+		assertEquals(HttpStatus.OK, response.statusCode());
+		assertEquals("1", response.headers().asHttpHeaders().getFirst(StubServer.REQUEST_HEADER));
+		assertEquals("chunked", response.headers().asHttpHeaders().getFirst(HttpHeaders.TRANSFER_ENCODING));
+
+		// body is left unread by the proxy, caller reads (or releases) it
+		final String body = read(response.bodyToFlux(DataBuffer.class));
+		assertTrue(body.startsWith("[{\"id\":0"));
+		assertTrue(body.endsWith("}]"));
+
+		final ClientResponse released = restGateway.getReposResponse("gencloud").block();
+		assertNotNull(released);
+		StepVerifier.create(released.bodyToMono(Void.class))
+				.expectComplete()
+				.verify();
+		assertEquals(2, StubServer.shared().getRequests());
+	}
+
+	@Test
+	public void test_fallbackOnErrorResponse() {
+		StubServer.shared().errorRate(1);
+
+		StepVerifier.create(restGateway.getReposOrEmpty("gencloud"))
+				.expectNextMatches(ArrayList::isEmpty)
+				.expectComplete()
+				.verify();
+
+		assertEquals(1, meterRegistry.get("restclient.fallbacks")
+				.tags("alias", "github-service", "mapping", "getReposOrEmpty", "exception", "ServiceUnavailable")
+				.counter()
+				.count(), 0);
+	}
+
+	@Test
+	public void test_errorWithoutFallback() {
+		StubServer.shared().errorRate(1);
+
+		StepVerifier.create(restGateway.getRepos("gencloud"))
+				.expectError(WebClientResponseException.ServiceUnavailable.class)
+				.verify();
+	}
+
+	private static String read(Flux<DataBuffer> body) {
+		return DataBufferUtils.join(body)
+				.map(buffer -> {
+					final byte[] bytes = new byte[buffer.readableByteCount()];
+					buffer.read(bytes);
+					DataBufferUtils.release(buffer);
+					return new String(bytes, StandardCharsets.UTF_8);
+				})
+				.block();
+	}
+
+	@TestConfiguration
+	static class MeterRegistryConfiguration {
+		@Bean
+		public MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+	}
 }
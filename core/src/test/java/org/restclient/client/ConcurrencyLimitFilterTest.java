@@ -0,0 +1,210 @@
+package org.restclient.client;
+
+import org.junit.Test;
+import org.restclient.deadline.Deadline;
+import org.restclient.deadline.DeadlineFilter;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.util.RaceTestUtils;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+public class ConcurrencyLimitFilterTest {
+	private final ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://localhost/repos")).build();
+	private final AtomicInteger current = new AtomicInteger();
+	private final AtomicInteger max = new AtomicInteger();
+
+	private final ExchangeFunction next = r -> Mono.defer(() -> {
+		max.accumulateAndGet(current.incrementAndGet(), Math::max);
+		return Mono.delay(Duration.ofMillis(20))
+				.map(tick -> ClientResponse.create(HttpStatus.OK)
+						.body(Flux.<DataBuffer>just(new DefaultDataBufferFactory().wrap("ok".getBytes(StandardCharsets.UTF_8)))
+								.doOnTerminate(current::decrementAndGet))
+						.build());
+	});
+
+	@Test
+	public void test_limitConcurrentExchanges() {
+		final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(4);
+
+		final List<String> responses = Flux.range(0, 20)
+				.flatMap(i -> filter.filter(request, next).flatMap(response -> response.bodyToMono(String.class)))
+				.collectList()
+				.block();
+
+		assertEquals(20, responses.size());
+		assertEquals(4, max.get());
+		assertEquals(0, filter.getActive());
+		assertEquals(0, filter.getPending());
+	}
+
+	@Test
+	public void test_cancelPendingExchange() {
+		final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1);
+
+		final Mono<String> first = filter.filter(request, next).flatMap(response -> response.bodyToMono(String.class)).cache();
+		first.subscribe();
+
+		final Disposable cancelled = filter.filter(request, next).subscribe();
+		assertEquals(1, filter.getPending());
+
+		cancelled.dispose();
+		assertEquals(0, filter.getPending());
+
+		assertEquals("ok", first.block());
+		assertEquals(0, filter.getActive());
+	}
+
+	@Test
+	public void test_cancelPendingExchangeWhileGranted() {
+		final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1);
+		final ExchangeFunction endless = r -> Mono.just(ClientResponse.create(HttpStatus.OK).body(Flux.<DataBuffer>never()).build());
+
+		for (int i = 0; i < 1000; i++) {
+			final Disposable first = filter.filter(request, endless).flatMap(response -> response.bodyToMono(String.class)).subscribe();
+			final Disposable waiting = filter.filter(request, endless).flatMap(response -> response.bodyToMono(String.class)).subscribe();
+			assertEquals(1, filter.getPending());
+
+			// releasing first permit hands it to the waiting exchange while it is being cancelled
+			RaceTestUtils.race(first::dispose, waiting::dispose);
+
+			assertEquals(0, filter.getActive());
+			assertEquals(0, filter.getPending());
+		}
+	}
+
+	@Test
+	public void test_servePendingByPriority() {
+		final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1);
+		final List<Integer> served = new CopyOnWriteArrayList<>();
+
+		final Mono<String> first = filter.filter(request, next).flatMap(response -> response.bodyToMono(String.class)).cache();
+		first.subscribe();
+
+		final List<Mono<String>> waiting = new ArrayList<>();
+		for (int priority : new int[]{0, 5, 1, 5}) {
+			final ClientRequest prioritized = ClientRequest.from(request)
+					.attribute(RouteClient.PRIORITY_ATTRIBUTE, priority)
+					.build();
+			final Mono<String> call = filter.filter(prioritized, next)
+					.doOnNext(response -> served.add(priority))
+					.flatMap(response -> response.bodyToMono(String.class))
+					.cache();
+			call.subscribe();
+			waiting.add(call);
+		}
+		assertEquals(4, filter.getPending());
+
+		first.block();
+		waiting.forEach(Mono::block);
+
+		assertEquals(Arrays.asList(5, 5, 1, 0), served);
+		assertEquals(0, filter.getActive());
+	}
+
+	@Test
+	public void test_dropExpiredPending() {
+		final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1);
+		final AtomicInteger exchanges = new AtomicInteger();
+		final ExchangeFunction counted = r -> {
+			exchanges.incrementAndGet();
+			return next.exchange(r);
+		};
+
+		final Mono<String> first = filter.filter(request, counted).flatMap(response -> response.bodyToMono(String.class)).cache();
+		first.subscribe();
+
+		final ClientRequest expiring = ClientRequest.from(request)
+				.attribute(DeadlineFilter.ATTRIBUTE, Deadline.of(Duration.ofMillis(5)))
+				.build();
+		final Mono<ClientResponse> expired = filter.filter(expiring, counted).cache();
+		expired.subscribe(response -> {
+		}, e -> {
+		});
+		assertEquals(1, filter.getPending());
+
+		assertEquals("ok", first.block());
+
+		Throwable error = null;
+		try {
+			expired.block();
+		} catch (Exception e) {
+			error = e.getCause();
+		}
+
+		assertTrue(error instanceof TimeoutException);
+		assertEquals(1, exchanges.get());
+		assertEquals(0, filter.getActive());
+		assertEquals(0, filter.getPending());
+	}
+
+	@Test
+	public void test_reduceTimeoutHeaderByWait() {
+		final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1);
+		final ExchangeFilterFunction filters = new DeadlineFilter().andThen(filter);
+		final List<Long> timeouts = new CopyOnWriteArrayList<>();
+		final ExchangeFunction slow = r -> {
+			timeouts.add(Long.parseLong(r.headers().getFirst(DeadlineFilter.TIMEOUT_HEADER)));
+			return Mono.delay(Duration.ofMillis(200))
+					.map(tick -> ClientResponse.create(HttpStatus.OK)
+							.body(Flux.<DataBuffer>just(new DefaultDataBufferFactory().wrap("ok".getBytes(StandardCharsets.UTF_8))))
+							.build());
+		};
+
+		final Deadline deadline = Deadline.of(Duration.ofSeconds(5));
+		final List<String> responses = Flux.range(0, 2)
+				.flatMap(i -> filters.filter(request, slow)
+						.flatMap(response -> response.bodyToMono(String.class))
+						.subscriberContext(deadline.toContext()))
+				.collectList()
+				.block();
+
+		assertEquals(2, responses.size());
+		assertEquals(2, timeouts.size());
+		// second request waited for the first one to complete
+		assertTrue(timeouts.get(0) - timeouts.get(1) >= 150);
+	}
+
+	@Test
+	public void test_acquireTimeout() {
+		final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, 5);
+
+		final Mono<String> first = filter.filter(request, next).flatMap(response -> response.bodyToMono(String.class)).cache();
+		first.subscribe();
+
+		Throwable error = null;
+		try {
+			filter.filter(request, next).block();
+		} catch (Exception e) {
+			error = e.getCause();
+		}
+
+		assertTrue(error instanceof TimeoutException);
+		assertEquals(0, filter.getPending());
+		assertEquals("ok", first.block());
+	}
+}
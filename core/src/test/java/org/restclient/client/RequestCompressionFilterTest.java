@@ -0,0 +1,111 @@
+package org.restclient.client;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.HttpMessageWriter;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.client.reactive.MockClientHttpRequest;
+import org.springframework.web.reactive.function.BodyInserter;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+public class RequestCompressionFilterTest {
+	private final RequestCompressionFilter filter = new RequestCompressionFilter(1024);
+
+	@Test
+	public void test_compressAboveThreshold() throws IOException {
+		final String body = StringUtils.repeat("{\"name\":\"rest_client\"}", 200);
+		final MockClientHttpRequest written = exchange(body);
+
+		assertEquals("gzip", written.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(body, gunzip(read(written)));
+	}
+
+	@Test
+	public void test_skipBelowThreshold() {
+		final String body = "{\"name\":\"rest_client\"}";
+		final MockClientHttpRequest written = exchange(body);
+
+		assertNull(written.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(body, new String(read(written), StandardCharsets.UTF_8));
+	}
+
+	private MockClientHttpRequest exchange(String body) {
+		final MockClientHttpRequest written = new MockClientHttpRequest(HttpMethod.POST, "/repos");
+		final ClientRequest request = ClientRequest.create(HttpMethod.POST, URI.create("http://localhost/repos"))
+				.body(BodyInserters.fromObject(body))
+				.build();
+
+		filter.filter(request, r -> r.body()
+				.insert(written, new TestContext())
+				.then(Mono.just(ClientResponse.create(HttpStatus.OK).build())))
+				.block();
+
+		return written;
+	}
+
+	private byte[] read(MockClientHttpRequest request) {
+		return DataBufferUtils.join(request.getBody())
+				.map(buffer -> {
+					final byte[] bytes = new byte[buffer.readableByteCount()];
+					buffer.read(bytes);
+					DataBufferUtils.release(buffer);
+					return bytes;
+				})
+				.block();
+	}
+
+	private String gunzip(byte[] bytes) throws IOException {
+		try (GZIPInputStream stream = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+			final ByteArrayOutputStream result = new ByteArrayOutputStream();
+			final byte[] buffer = new byte[8192];
+			int read;
+			while ((read = stream.read(buffer)) > 0) {
+				result.write(buffer, 0, read);
+			}
+			return new String(result.toByteArray(), StandardCharsets.UTF_8);
+		}
+	}
+
+	private static class TestContext implements BodyInserter.Context {
+		@Override
+		public List<HttpMessageWriter<?>> messageWriters() {
+			return ExchangeStrategies.withDefaults().messageWriters();
+		}
+
+		@Override
+		public Optional<ServerHttpRequest> serverRequest() {
+			return Optional.empty();
+		}
+
+		@Override
+		public Map<String, Object> hints() {
+			return Collections.emptyMap();
+		}
+	}
+}
@@ -0,0 +1,102 @@
+package org.restclient.client;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.restclient.config.ServicesConfiguration.RouteSettings;
+import org.springframework.http.HttpHeaders;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+public class RouteClientFactoryTest {
+	private final RouteClientFactory factory = new RouteClientFactory();
+	private final AtomicReference<String> received = new AtomicReference<>();
+	private DisposableServer server;
+	private RouteClient client;
+
+	@Before
+	public void setUp() {
+		server = HttpServer.create()
+				.host("127.0.0.1")
+				.port(0)
+				.handle((request, response) -> {
+					received.set(request.requestHeaders().get(HttpHeaders.ACCEPT_ENCODING));
+					return response.sendString(Mono.just("hello " + request.uri()));
+				})
+				.bindNow();
+	}
+
+	@After
+	public void tearDown() {
+		if (client != null) {
+			client.getConnectionProvider().dispose();
+		}
+		server.disposeNow();
+	}
+
+	@Test
+	public void test_fixedPoolRoute() {
+		final RouteSettings settings = route(true);
+		settings.getPool().setMaxConnections(2);
+
+		client = factory.createClient(settings);
+		assertNotNull(client.getLimitFilter());
+
+		final List<String> responses = Flux.range(0, 20)
+				.flatMap(i -> client.getWebClient()
+						.get()
+						.uri(settings.getHost() + "/repos/" + i)
+						.retrieve()
+						.bodyToMono(String.class))
+				.collectList()
+				.block();
+
+		assertEquals(20, responses.size());
+		assertTrue(responses.stream().allMatch(r -> r.startsWith("hello /repos/")));
+		assertEquals(0, client.getLimitFilter().getActive());
+	}
+
+	@Test
+	public void test_sendAcceptEncoding() {
+		assertEquals("hello /repos", get(route(true), "/repos"));
+		assertEquals("gzip, deflate", received.get());
+	}
+
+	@Test
+	public void test_skipAcceptEncodingWithoutCompression() {
+		assertEquals("hello /repos", get(route(false), "/repos"));
+		assertNull(received.get());
+	}
+
+	private RouteSettings route(boolean compression) {
+		final RouteSettings settings = new RouteSettings();
+		settings.setAlias("plain-service");
+		settings.setHost("http://127.0.0.1:" + server.port());
+		settings.getCompression().setEnabled(compression);
+		return settings;
+	}
+
+	private String get(RouteSettings settings, String path) {
+		client = factory.createClient(settings);
+		return client.getWebClient()
+				.get()
+				.uri(settings.getHost() + path)
+				.retrieve()
+				.bodyToMono(String.class)
+				.block();
+	}
+}
@@ -0,0 +1,183 @@
+package org.restclient.client;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.restclient.config.ServicesConfiguration;
+import org.restclient.config.ServicesConfiguration.RouteSettings;
+import org.restclient.model.RoutesRefreshEvent;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import javax.naming.ConfigurationException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+public class RouteRegistryTest {
+	private DisposableServer blue;
+	private DisposableServer green;
+	private RouteRegistry registry;
+
+	@Before
+	public void setUp() {
+		blue = server("blue");
+		green = server("green");
+
+		final ServicesConfiguration configuration = new ServicesConfiguration();
+		configuration.setDrainTimeout(500);
+		configuration.setRoutes(Arrays.asList(route("color-service", blue), route("static-service", blue)));
+		registry = new RouteRegistry(new RouteClientFactory(Collections.singletonList(new RejectingCustomizer())),
+				configuration);
+	}
+
+	@After
+	public void tearDown() {
+		registry.destroy();
+		blue.disposeNow();
+		green.disposeNow();
+	}
+
+	@Test
+	public void test_shiftTraffic() throws Exception {
+		final RouteClient before = registry.getClient("color-service");
+		final RouteClient unchanged = registry.getClient("static-service");
+		assertEquals("blue", call(before));
+
+		registry.update(Arrays.asList(route("color-service", green), route("static-service", blue)));
+
+		final RouteClient after = registry.getClient("color-service");
+		assertEquals("green", call(after));
+		assertSame(unchanged, registry.getClient("static-service"));
+
+		// no call in flight, old pool is not kept until drain timeout
+		assertTrue(before.getConnectionProvider().isDisposed());
+		assertFalse(after.getConnectionProvider().isDisposed());
+	}
+
+	@Test
+	public void test_drainCallInFlight() throws Exception {
+		final RouteClient before = registry.getClient("color-service");
+		final Mono<String> slow = call(before, "/slow/200").cache();
+		slow.subscribe();
+		awaitInflight(before);
+
+		registry.update(Arrays.asList(route("color-service", green), route("static-service", blue)));
+
+		assertFalse(before.getConnectionProvider().isDisposed());
+		assertEquals("blue", slow.block());
+		Thread.sleep(100);
+		// well before drain timeout
+		assertTrue(before.getConnectionProvider().isDisposed());
+	}
+
+	@Test
+	public void test_disposeAfterDrainTimeout() throws Exception {
+		final RouteClient before = registry.getClient("color-service");
+		call(before, "/slow/5000").subscribe(ignored -> {}, ignored -> {});
+		awaitInflight(before);
+
+		registry.update(Arrays.asList(route("color-service", green), route("static-service", blue)));
+
+		assertFalse(before.getConnectionProvider().isDisposed());
+		Thread.sleep(1000);
+		assertEquals(1, before.getInflightFilter().getActive());
+		assertTrue(before.getConnectionProvider().isDisposed());
+	}
+
+	@Test
+	public void test_listenToRouteEventsOnly() {
+		assertTrue(registry.supportsEventType(RoutesRefreshEvent.class));
+		assertFalse(registry.supportsEventType(ContextRefreshedEvent.class));
+		assertFalse(registry.supportsEventType(ApplicationEvent.class));
+	}
+
+	@Test(expected = ConfigurationException.class)
+	public void test_removeRoute() throws Exception {
+		registry.update(Collections.singletonList(route("static-service", blue)));
+
+		registry.getClient("color-service");
+	}
+
+	@Test
+	public void test_keepRoutesOnRejectedUpdate() throws Exception {
+		final RouteClient before = registry.getClient("color-service");
+
+		final RouteSettings broken = route("static-service", green);
+		broken.setAlias(RejectingCustomizer.ALIAS);
+		try {
+			registry.update(Arrays.asList(route("color-service", green), broken));
+			fail("Broken route accepted");
+		} catch (IllegalArgumentException expected) {
+		}
+
+		assertSame(before, registry.getClient("color-service"));
+		assertEquals("blue", call(before));
+	}
+
+	private static String call(RouteClient client) {
+		return call(client, "/color").block();
+	}
+
+	private static Mono<String> call(RouteClient client, String path) {
+		return client.getWebClient()
+				.get()
+				.uri(client.getSettings().getHost() + path)
+				.retrieve()
+				.bodyToMono(String.class);
+	}
+
+	private static void awaitInflight(RouteClient client) throws InterruptedException {
+		for (int i = 0; i < 100 && client.getInflightFilter().getActive() == 0; i++) {
+			Thread.sleep(10);
+		}
+		assertEquals(1, client.getInflightFilter().getActive());
+	}
+
+	private static RouteSettings route(String alias, DisposableServer server) {
+		final RouteSettings settings = new RouteSettings();
+		settings.setAlias(alias);
+		settings.setHost("http://127.0.0.1:" + server.port());
+		return settings;
+	}
+
+	private static DisposableServer server(String color) {
+		return HttpServer.create()
+				.host("127.0.0.1")
+				.port(0)
+				.handle((request, response) -> {
+					// "/slow/{millis}" answers after a delay
+					final String uri = request.uri();
+					final Duration delay = uri.startsWith("/slow/")
+							? Duration.ofMillis(Long.parseLong(uri.substring("/slow/".length())))
+							: Duration.ZERO;
+					return response.sendString(Mono.just(color).delayElement(delay));
+				})
+				.bindNow();
+	}
+
+	private static class RejectingCustomizer implements RouteClientCustomizer {
+		private static final String ALIAS = "broken-service";
+
+		@Override
+		public void customize(RouteSettings settings, WebClient.Builder builder) {
+			if (ALIAS.equals(settings.getAlias())) {
+				throw new IllegalArgumentException("Route rejected: " + settings.getAlias());
+			}
+		}
+	}
+}
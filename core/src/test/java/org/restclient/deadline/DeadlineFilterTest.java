@@ -0,0 +1,121 @@
+package org.restclient.deadline;
+
+import org.junit.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+public class DeadlineFilterTest {
+	private final DeadlineFilter filter = new DeadlineFilter();
+	private final ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://localhost/repos")).build();
+	private final AtomicReference<ClientRequest> sent = new AtomicReference<>();
+
+	@Test
+	public void test_sendWithoutDeadline() {
+		assertEquals("ok", filter.filter(request, respond(Duration.ZERO))
+				.flatMap(response -> response.bodyToMono(String.class))
+				.block());
+
+		assertNull(sent.get().headers().getFirst(DeadlineFilter.TIMEOUT_HEADER));
+		assertFalse(sent.get().attribute(DeadlineFilter.ATTRIBUTE).isPresent());
+	}
+
+	@Test
+	public void test_propagateRemainingTime() {
+		final Deadline deadline = Deadline.of(Duration.ofSeconds(5));
+
+		assertEquals("ok", filter.filter(request, respond(Duration.ZERO))
+				.flatMap(response -> response.bodyToMono(String.class))
+				.subscriberContext(deadline.toContext())
+				.block());
+
+		final long timeout = Long.parseLong(sent.get().headers().getFirst(DeadlineFilter.TIMEOUT_HEADER));
+		assertTrue(timeout > 4000 && timeout <= 5000);
+		assertSame(deadline, sent.get().attribute(DeadlineFilter.ATTRIBUTE).orElse(null));
+	}
+
+	@Test
+	public void test_keepEarlierDeadline() {
+		final Deadline outer = Deadline.of(Duration.ofMillis(100));
+
+		filter.filter(request, respond(Duration.ZERO))
+				.flatMap(response -> response.bodyToMono(String.class))
+				.subscriberContext(Deadline.of(Duration.ofSeconds(5)).toContext())
+				.subscriberContext(outer.toContext())
+				.block();
+
+		assertSame(outer, sent.get().attribute(DeadlineFilter.ATTRIBUTE).orElse(null));
+	}
+
+	@Test
+	public void test_failExpiredWithoutSending() {
+		final Throwable error = error(filter.filter(request, respond(Duration.ZERO))
+				.subscriberContext(Deadline.of(Duration.ZERO).toContext()));
+
+		assertTrue(error instanceof TimeoutException);
+		assertNull(sent.get());
+	}
+
+	@Test
+	public void test_timeoutSlowResponse() {
+		final Throwable error = error(filter.filter(request, respond(Duration.ofSeconds(5)))
+				.subscriberContext(Deadline.of(Duration.ofMillis(50)).toContext()));
+
+		assertTrue(error instanceof TimeoutException);
+	}
+
+	@Test
+	public void test_timeoutSlowBody() {
+		final Throwable error = error(filter.filter(request, r -> {
+			sent.set(r);
+			return Mono.just(ClientResponse.create(HttpStatus.OK)
+					.body(Flux.interval(Duration.ofMillis(20)).map(tick -> buffer()))
+					.build());
+		})
+				.flatMapMany(response -> response.bodyToFlux(DataBuffer.class))
+				.then()
+				.subscriberContext(Deadline.of(Duration.ofMillis(100)).toContext()));
+
+		assertTrue(error instanceof TimeoutException);
+	}
+
+	private ExchangeFunction respond(Duration delay) {
+		return r -> {
+			sent.set(r);
+			return Mono.delay(delay).map(tick -> ClientResponse.create(HttpStatus.OK)
+					.body(Flux.just(buffer()))
+					.build());
+		};
+	}
+
+	private static DataBuffer buffer() {
+		return new DefaultDataBufferFactory().wrap("ok".getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static Throwable error(Mono<?> call) {
+		try {
+			call.block();
+		} catch (Exception e) {
+			return e.getCause();
+		}
+		return null;
+	}
+}
@@ -3,7 +3,11 @@ package org.restclient.gateway;
 import org.restclient.annotations.Mapping;
 import org.restclient.annotations.ServiceMapping;
 import org.restclient.annotations.Type;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.ArrayList;
@@ -25,4 +29,42 @@ public interface RestGateway {
 	@ServiceMapping(path = "/users/${userName}/repos", method = GET)
 	@Type(type = ArrayList.class)
 	Mono<ArrayList> getRepos(@PathVariable("userName") String userName);
+
+	/**
+	 * Get all repos met-information by user name, empty list if route fails.
+	 *
+	 * @param userName - github user name
+	 * @return json string
+	 */
+	@ServiceMapping(path = "/users/${userName}/repos", method = GET,
+			fallbackClass = RestGatewayFallback.class, fallbackMethod = "getRepos")
+	@Type(type = ArrayList.class)
+	Mono<ArrayList> getReposOrEmpty(@PathVariable("userName") String userName);
+
+	/**
+	 * Get all repos met-information by user name without decoding.
+	 *
+	 * @param userName - github user name
+	 * @return raw response buffers
+	 */
+	@ServiceMapping(path = "/users/${userName}/repos", method = GET)
+	Flux<DataBuffer> getReposRaw(@PathVariable("userName") String userName);
+
+	/**
+	 * Get all repos met-information by user name with status and headers, without decoding.
+	 *
+	 * @param userName - github user name
+	 * @return response entity with raw body
+	 */
+	@ServiceMapping(path = "/users/${userName}/repos", method = GET)
+	Mono<ResponseEntity<Flux<DataBuffer>>> getReposEntity(@PathVariable("userName") String userName);
+
+	/**
+	 * Get exchange result of repos request, body is left to the caller.
+	 *
+	 * @param userName - github user name
+	 * @return client response
+	 */
+	@ServiceMapping(path = "/users/${userName}/repos", method = GET)
+	Mono<ClientResponse> getReposResponse(@PathVariable("userName") String userName);
 }
@@ -0,0 +1,13 @@
+package org.restclient.gateway;
+
+import java.util.ArrayList;
+
+/**
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+public class RestGatewayFallback {
+	public ArrayList getRepos(String userName, Throwable error) {
+		return new ArrayList();
+	}
+}
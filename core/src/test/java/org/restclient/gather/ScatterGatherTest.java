@@ -0,0 +1,166 @@
+package org.restclient.gather;
+
+import org.junit.Test;
+import org.restclient.deadline.Deadline;
+import org.restclient.gather.GatherResult.State;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+public class ScatterGatherTest {
+	private final AtomicInteger current = new AtomicInteger();
+	private final AtomicInteger max = new AtomicInteger();
+	private final List<String> started = new CopyOnWriteArrayList<>();
+
+	@Test
+	public void test_gatherPartialResults() {
+		final GatherResult<String> result = new ScatterGather<String>(2)
+				.timeout(Duration.ofMillis(100))
+				.add("a", () -> call("a1", 10))
+				.add("a", () -> Mono.error(new IllegalStateException("a2")))
+				.add("b", () -> call("b1", 5000))
+				.add("b", () -> call("b2", 10))
+				.all()
+				.block();
+
+		assertEquals(Arrays.asList("a1", "b2"), result.getValues());
+		assertEquals(Arrays.asList(State.SUCCEEDED, State.FAILED, State.FAILED, State.SUCCEEDED), states(result));
+		assertTrue(result.getOutcomes().get(1).getError() instanceof IllegalStateException);
+		assertTrue(result.getOutcomes().get(2).getError() instanceof TimeoutException);
+		assertFalse(result.isSatisfied());
+	}
+
+	@Test
+	public void test_limitConcurrency() {
+		final ScatterGather<String> gather = new ScatterGather<String>(3);
+		for (int i = 0; i < 20; i++) {
+			gather.add("alias-" + i % 4, () -> call("ok", 10));
+		}
+
+		final GatherResult<String> result = gather.all().block();
+
+		assertEquals(20, result.getSucceeded());
+		assertEquals(3, max.get());
+	}
+
+	@Test
+	public void test_shareCapacityAcrossAliases() {
+		new ScatterGather<String>(1)
+				.add("a", () -> call("a1", 1))
+				.add("a", () -> call("a2", 1))
+				.add("a", () -> call("a3", 1))
+				.add("b", () -> call("b1", 1))
+				.add("c", () -> call("c1", 1))
+				.all()
+				.block();
+
+		assertEquals(Arrays.asList("a1", "b1", "c1", "a2", "a3"), started);
+	}
+
+	@Test
+	public void test_limitAliasConcurrency() {
+		final AtomicInteger aliasCurrent = new AtomicInteger();
+		final AtomicInteger aliasMax = new AtomicInteger();
+
+		final ScatterGather<String> gather = new ScatterGather<String>(8).aliasConcurrency(2);
+		for (int i = 0; i < 6; i++) {
+			gather.add("a", () -> Mono.defer(() -> {
+				aliasMax.accumulateAndGet(aliasCurrent.incrementAndGet(), Math::max);
+				return call("a", 10).doOnNext(value -> aliasCurrent.decrementAndGet());
+			}));
+			gather.add("b", () -> call("b", 10));
+		}
+
+		assertEquals(12, gather.all().block().getSucceeded());
+		assertEquals(2, aliasMax.get());
+	}
+
+	@Test
+	public void test_completeFirstAndCancelRest() {
+		final AtomicInteger cancelled = new AtomicInteger();
+
+		final GatherResult<String> result = new ScatterGather<String>(4)
+				.add("a", () -> call("slow", 5000).doOnCancel(cancelled::incrementAndGet))
+				.add("b", () -> call("fast", 10))
+				.add("c", () -> call("faster", 5))
+				.add("d", () -> call("never", 5000).doOnCancel(cancelled::incrementAndGet))
+				.first(2)
+				.block(Duration.ofSeconds(2));
+
+		assertTrue(result.isSatisfied());
+		assertEquals(Arrays.asList("fast", "faster"), result.getValues());
+		assertEquals(State.CANCELLED, result.getOutcomes().get(0).getState());
+		assertEquals(2, cancelled.get());
+	}
+
+	@Test
+	public void test_failQuorumWhenUnreachable() {
+		final GatherResult<String> result = new ScatterGather<String>(3)
+				.add("a", () -> Mono.error(new IllegalStateException()))
+				.add("b", () -> Mono.error(new IllegalStateException()))
+				.add("c", () -> call("slow", 5000))
+				.quorum()
+				.block(Duration.ofSeconds(2));
+
+		assertFalse(result.isSatisfied());
+		assertEquals(2, result.getFailures().size());
+		assertEquals(State.CANCELLED, result.getOutcomes().get(2).getState());
+	}
+
+	@Test
+	public void test_dispatchSynchronousCalls() {
+		final ScatterGather<Integer> gather = new ScatterGather<>(1);
+		for (int i = 0; i < 5000; i++) {
+			final int value = i;
+			gather.add("alias-" + i % 2, () -> Mono.just(value));
+		}
+
+		final GatherResult<Integer> result = gather.all().block();
+
+		assertEquals(5000, result.getSucceeded());
+		assertEquals(Integer.valueOf(4999), result.getValues().get(4999));
+	}
+
+	@Test
+	public void test_propagateContext() {
+		final Deadline deadline = Deadline.of(Duration.ofSeconds(1));
+
+		final GatherResult<Object> result = new ScatterGather<>(1)
+				.add("a", () -> Mono.subscriberContext().map(context -> Deadline.from(context)))
+				.all()
+				.subscriberContext(deadline.toContext())
+				.block();
+
+		assertSame(deadline, result.getValues().get(0));
+	}
+
+	private Mono<String> call(String value, long millis) {
+		return Mono.defer(() -> {
+			started.add(value);
+			max.accumulateAndGet(current.incrementAndGet(), Math::max);
+			// a call is done once its value is emitted
+			return Mono.delay(Duration.ofMillis(millis))
+					.doOnCancel(current::decrementAndGet)
+					.map(tick -> {
+						current.decrementAndGet();
+						return value;
+					});
+		});
+	}
+
+	private static List<State> states(GatherResult<?> result) {
+		return result.getOutcomes().stream().map(GatherResult.Outcome::getState).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,62 @@
+package org.restclient.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Open-loop load: calls are started at fixed rate whether previous ones completed or not, like independent users
+ * do. Latency is measured from the moment a call was due, so a stalled client shows up in percentiles instead of
+ * silently lowering the rate (coordinated omission).
+ *
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+public class LoadGenerator {
+	private static final long HIGHEST_LATENCY = TimeUnit.MINUTES.toMicros(1);
+
+	private final int rate;
+	private final Duration duration;
+
+	/**
+	 * @param rate     - calls per second
+	 * @param duration - time to start calls for, run lasts until the last one completes
+	 */
+	public LoadGenerator(int rate, Duration duration) {
+		this.rate = rate;
+		this.duration = duration;
+	}
+
+	public LoadReport run(Supplier<? extends Publisher<?>> call) {
+		final long period = TimeUnit.SECONDS.toNanos(1) / rate;
+		final long calls = duration.toNanos() / period;
+		final Histogram histogram = new ConcurrentHistogram(HIGHEST_LATENCY, 3);
+		final AtomicLong errors = new AtomicLong();
+
+		final long start = System.nanoTime();
+		Flux.interval(Duration.ofNanos(period))
+				.take(calls)
+				.flatMap(tick -> {
+					final long due = start + (tick + 1) * period;
+					return Mono.defer(() -> Flux.from(call.get()).then())
+							.doOnTerminate(() -> record(histogram, due))
+							.doOnError(e -> errors.incrementAndGet())
+							.onErrorResume(e -> Mono.empty());
+				}, Integer.MAX_VALUE)
+				.blockLast();
+
+		return new LoadReport(histogram, errors.get(), Duration.ofNanos(System.nanoTime() - start));
+	}
+
+	private static void record(Histogram histogram, long due) {
+		final long latency = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - due);
+		histogram.recordValue(Math.max(0, Math.min(latency, HIGHEST_LATENCY)));
+	}
+}
@@ -0,0 +1,52 @@
+package org.restclient.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+
+/**
+ * Result of {@link LoadGenerator} run, latencies in millis.
+ *
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+public class LoadReport {
+	private final Histogram histogram;
+	private final long errors;
+	private final Duration elapsed;
+
+	LoadReport(Histogram histogram, long errors, Duration elapsed) {
+		this.histogram = histogram;
+		this.errors = errors;
+		this.elapsed = elapsed;
+	}
+
+	public long getCalls() {
+		return histogram.getTotalCount();
+	}
+
+	public long getErrors() {
+		return errors;
+	}
+
+	/**
+	 * Completed calls per second.
+	 */
+	public double getThroughput() {
+		return getCalls() * 1000.0 / elapsed.toMillis();
+	}
+
+	public double percentile(double percentile) {
+		return histogram.getValueAtPercentile(percentile) / 1000.0;
+	}
+
+	public double getMax() {
+		return histogram.getMaxValue() / 1000.0;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("calls: %d, errors: %d, throughput: %.1f/s, latency ms - p50: %.1f, p90: %.1f, p99: %.1f, p99.9: %.1f, max: %.1f",
+				getCalls(), errors, getThroughput(), percentile(50), percentile(90), percentile(99), percentile(99.9), getMax());
+	}
+}
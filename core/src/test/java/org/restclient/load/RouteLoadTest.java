@@ -0,0 +1,120 @@
+package org.restclient.load;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.restclient.SpringApplicationTest;
+import org.restclient.deadline.Deadline;
+import org.restclient.gateway.RestGateway;
+import org.restclient.stub.Latency;
+import org.restclient.stub.StubServer;
+import org.restclient.stub.StubServerInitializer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Gateway behaviour under open-loop load against {@link StubServer}, route pool is limited to 4 connections.
+ * Latencies are only checked against bounds set by the stub (its latency, pool capacity) with wide margins, so
+ * a slow or busy machine does not fail the build.
+ *
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+@Slf4j
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = SpringApplicationTest.class, properties = "stub.max-connections=4")
+@ContextConfiguration(initializers = StubServerInitializer.class)
+public class RouteLoadTest {
+	@Autowired
+	@SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
+	private RestGateway restGateway;
+
+	private final StubServer stub = StubServer.shared();
+
+	@Before
+	public void setUp() {
+		stub.reset();
+	}
+
+	@Test
+	public void test_latencyPercentiles() {
+		stub.latency(Latency.logNormal(Duration.ofMillis(10), 0.5));
+
+		final LoadReport report = new LoadGenerator(100, Duration.ofSeconds(2)).run(() -> restGateway.getRepos("gencloud"));
+		log.info("Log-normal latency: {}", report);
+
+		assertEquals(200, report.getCalls());
+		assertEquals(0, report.getErrors());
+		// upstream median is 10ms, client can only add to it
+		assertTrue(report.percentile(50) >= 5);
+		assertTrue(report.percentile(99) >= report.percentile(50));
+	}
+
+	@Test
+	public void test_errorRate() {
+		stub.errorRate(0.25);
+
+		final LoadReport report = new LoadGenerator(100, Duration.ofSeconds(1)).run(() -> restGateway.getRepos("gencloud"));
+		log.info("25% errors: {}", report);
+
+		assertEquals(100, report.getCalls());
+		// binomial(100, 0.25), more than 5 standard deviations from 25 either way
+		assertTrue(report.getErrors() > 3 && report.getErrors() < 50);
+	}
+
+	@Test
+	public void test_poolQueuesExcessLoad() {
+		// 4 connections * 10 calls/s each is below offered 100 calls/s
+		stub.latency(Latency.fixed(Duration.ofMillis(100)));
+
+		final LoadReport report = new LoadGenerator(100, Duration.ofSeconds(1)).run(() -> restGateway.getRepos("gencloud"));
+		log.info("Pool saturated: {}", report);
+
+		assertEquals(100, report.getCalls());
+		assertEquals(0, report.getErrors());
+		assertTrue(stub.getMaxInflight() <= 4);
+		// pool serves at most 40 calls/s, last calls wait about 1.5s for a connection
+		assertTrue(report.getThroughput() <= 45);
+		assertTrue(report.percentile(99) > 5 * 100);
+	}
+
+	@Test
+	public void test_slowDripBody() {
+		stub.payloadSize(16 * 1024).slowDrip(8, Duration.ofMillis(50));
+
+		final long start = System.nanoTime();
+		final ArrayList repos = restGateway.getRepos("gencloud").block();
+
+		assertFalse(repos == null || repos.isEmpty());
+		assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= 400);
+	}
+
+	@Test
+	public void test_deadlineBoundsSlowUpstream() {
+		stub.latency(Latency.fixed(Duration.ofSeconds(1)));
+		final AtomicInteger timeouts = new AtomicInteger();
+
+		final LoadReport report = new LoadGenerator(50, Duration.ofSeconds(1)).run(() -> restGateway.getRepos("gencloud")
+				.doOnError(TimeoutException.class, e -> timeouts.incrementAndGet())
+				.subscriberContext(Deadline.of(Duration.ofMillis(100)).toContext()));
+		log.info("Deadline of 100ms, upstream latency 1s: {}", report);
+
+		assertEquals(50, report.getCalls());
+		assertEquals(50, report.getErrors());
+		assertEquals(50, timeouts.get());
+		// calls give up at their deadline instead of waiting for upstream (or a connection held by it)
+		assertTrue(report.percentile(99) < 500);
+	}
+}
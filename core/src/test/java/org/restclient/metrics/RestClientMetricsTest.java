@@ -0,0 +1,151 @@
+package org.restclient.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.restclient.client.RouteClient;
+import org.restclient.client.RouteClientFactory;
+import org.restclient.config.ServicesConfiguration.RouteSettings;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+public class RestClientMetricsTest {
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final RestClientMetrics metrics = new RestClientMetrics(registry, false);
+
+	@Test
+	public void test_recordExchange() {
+		final String body = client(HttpStatus.OK)
+				.get()
+				.uri("http://localhost/users/gencloud/repos")
+				.attribute(RouteClient.METHOD_ATTRIBUTE, "getRepos")
+				.attribute(RouteClient.URI_TEMPLATE_ATTRIBUTE, "/users/${userName}/repos")
+				.retrieve()
+				.bodyToMono(String.class)
+				.block();
+
+		assertEquals("[]", body);
+		assertEquals(1, registry.get("restclient.requests")
+				.tags("alias", "github", "mapping", "getRepos", "uri", "/users/${userName}/repos",
+						"status", "200", "outcome", "SUCCESS")
+				.timer()
+				.count());
+		assertEquals(2, registry.get("restclient.response.size").summary().totalAmount(), 0);
+	}
+
+	@Test
+	public void test_recordUnreadResponse() {
+		final ClientResponse response = client(HttpStatus.OK)
+				.get()
+				.uri("http://localhost/users/gencloud/repos")
+				.exchange()
+				.block();
+
+		assertEquals(HttpStatus.OK, response.statusCode());
+		assertEquals(1, registry.get("restclient.requests")
+				.tags("alias", "github", "status", "200", "outcome", "SUCCESS")
+				.timer()
+				.count());
+		assertEquals(0, registry.get("restclient.pool.pending").gauge().value(), 0);
+		assertNull(registry.find("restclient.response.size").summary());
+	}
+
+	@Test
+	public void test_recordError() {
+		final Mono<String> response = client(HttpStatus.SERVICE_UNAVAILABLE)
+				.get()
+				.uri("http://localhost/users/gencloud/repos")
+				.retrieve()
+				.bodyToMono(String.class);
+
+		try {
+			response.block();
+		} catch (WebClientResponseException ignored) {
+		}
+
+		assertEquals(1, registry.get("restclient.requests")
+				.tags("alias", "github", "uri", "none", "status", "503", "outcome", "SERVER_ERROR")
+				.timer()
+				.count());
+	}
+
+	@Test
+	public void test_poolGaugesPerClient() {
+		final DisposableServer server = HttpServer.create()
+				.host("127.0.0.1")
+				.port(0)
+				.handle((request, response) -> response.sendString(Mono.just("[]")))
+				.bindNow();
+		final RouteClientFactory factory = new RouteClientFactory(Collections.singletonList(metrics));
+
+		try {
+			// replaced client drains while its replacement serves new calls
+			final RouteClient draining = factory.createClient(route(server));
+			call(draining);
+			final RouteClient current = factory.createClient(route(server));
+			call(current);
+
+			assertEquals(2, registry.get("restclient.pool.connections").gauges().size());
+			assertEquals(2, connections(), 0);
+
+			factory.dispose(draining);
+			assertEquals(1, connections(), 0);
+			assertEquals("[]", call(current));
+
+			factory.dispose(current);
+			assertTrue(registry.find("restclient.pool.connections").gauges().isEmpty());
+			assertTrue(registry.find("restclient.pool.pending").gauges().isEmpty());
+		} finally {
+			server.disposeNow();
+		}
+	}
+
+	private double connections() {
+		return registry.get("restclient.pool.connections").gauges().stream().mapToDouble(Gauge::value).sum();
+	}
+
+	private static RouteSettings route(DisposableServer server) {
+		final RouteSettings settings = route();
+		settings.setHost("http://127.0.0.1:" + server.port());
+		return settings;
+	}
+
+	private static String call(RouteClient client) {
+		return client.getWebClient()
+				.get()
+				.uri(client.getSettings().getHost() + "/users/gencloud/repos")
+				.retrieve()
+				.bodyToMono(String.class)
+				.block();
+	}
+
+	private static RouteSettings route() {
+		final RouteSettings settings = new RouteSettings();
+		settings.setAlias("github");
+		return settings;
+	}
+
+	private WebClient client(HttpStatus status) {
+		final RouteSettings settings = route();
+
+		final WebClient.Builder builder = WebClient.builder()
+				.exchangeFunction(request -> Mono.just(ClientResponse.create(status).body("[]").build()));
+		metrics.customize(settings, builder);
+		return builder.build();
+	}
+}
@@ -0,0 +1,32 @@
+package org.restclient.stub;
+
+import java.time.Duration;
+import java.util.Random;
+
+/**
+ * Latency distribution of {@link StubServer}.
+ *
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+@FunctionalInterface
+public interface Latency {
+	Duration next(Random random);
+
+	static Latency fixed(Duration latency) {
+		return random -> latency;
+	}
+
+	static Latency uniform(Duration min, Duration max) {
+		final long range = max.toMillis() - min.toMillis();
+		return random -> min.plusMillis((long) (random.nextDouble() * range));
+	}
+
+	/**
+	 * Long-tailed latency of real services: half of requests are faster than median, sigma widens the tail
+	 * (0.5 gives p99 about 3x median).
+	 */
+	static Latency logNormal(Duration median, double sigma) {
+		return random -> Duration.ofMillis((long) (median.toMillis() * Math.exp(sigma * random.nextGaussian())));
+	}
+}
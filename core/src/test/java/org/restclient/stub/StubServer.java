@@ -0,0 +1,187 @@
+package org.restclient.stub;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.apache.commons.lang3.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local upstream of tests: answers every request with a json array after configured latency, failing a share of
+ * requests and optionally dripping the body in delayed chunks. Random choices are seeded, so a run is repeatable.
+ *
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+public class StubServer {
+	/**
+	 * Response header with number of request since reset.
+	 */
+	public static final String REQUEST_HEADER = "X-Stub-Request";
+
+	private static final long SEED = 42;
+	private static StubServer shared;
+
+	private final DisposableServer server;
+	private final AtomicInteger requests = new AtomicInteger();
+	private final AtomicInteger inflight = new AtomicInteger();
+	private final AtomicInteger maxInflight = new AtomicInteger();
+
+	private Random random;
+	private volatile Latency latency;
+	private volatile double errorRate;
+	private volatile byte[] payload;
+	private volatile int dripChunks;
+	private volatile Duration dripInterval;
+
+	public StubServer() {
+		reset();
+		server = HttpServer.create()
+				.host("127.0.0.1")
+				.port(0)
+				.handle(this::handle)
+				.bindNow();
+	}
+
+	/**
+	 * Server shared by tests of one jvm, started on first call.
+	 */
+	public static synchronized StubServer shared() {
+		if (shared == null) {
+			shared = new StubServer();
+		}
+		return shared;
+	}
+
+	public int getPort() {
+		return server.port();
+	}
+
+	public String getHost() {
+		return "http://127.0.0.1:" + getPort();
+	}
+
+	/**
+	 * Restore defaults - no latency, no errors, 256 bytes body - and clear counters.
+	 */
+	public synchronized StubServer reset() {
+		random = new Random(SEED);
+		latency = Latency.fixed(Duration.ZERO);
+		errorRate = 0;
+		payload = json(256);
+		dripChunks = 1;
+		dripInterval = Duration.ZERO;
+		requests.set(0);
+		maxInflight.set(0);
+		return this;
+	}
+
+	public StubServer latency(Latency latency) {
+		this.latency = latency;
+		return this;
+	}
+
+	/**
+	 * @param errorRate - share of requests answered with 503, from 0 to 1
+	 */
+	public StubServer errorRate(double errorRate) {
+		this.errorRate = errorRate;
+		return this;
+	}
+
+	public StubServer payloadSize(int bytes) {
+		this.payload = json(bytes);
+		return this;
+	}
+
+	/**
+	 * Send body in given count of chunks, waiting interval before each one.
+	 */
+	public StubServer slowDrip(int chunks, Duration interval) {
+		this.dripChunks = chunks;
+		this.dripInterval = interval;
+		return this;
+	}
+
+	public int getRequests() {
+		return requests.get();
+	}
+
+	/**
+	 * Max count of requests handled at the same time since reset.
+	 */
+	public int getMaxInflight() {
+		return maxInflight.get();
+	}
+
+	public void dispose() {
+		server.disposeNow();
+	}
+
+	private Mono<Void> handle(HttpServerRequest request, HttpServerResponse response) {
+		response.header(REQUEST_HEADER, String.valueOf(requests.incrementAndGet()));
+		maxInflight.accumulateAndGet(inflight.incrementAndGet(), Math::max);
+
+		final Duration delay;
+		final boolean error;
+		synchronized (this) {
+			delay = latency.next(random);
+			error = random.nextDouble() < errorRate;
+		}
+
+		return Mono.delay(delay)
+				.then(Mono.defer(() -> {
+					if (error) {
+						return response.status(HttpResponseStatus.SERVICE_UNAVAILABLE).send().then();
+					}
+
+					return response.header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+							.sendByteArray(chunks())
+							.then();
+				}))
+				.doFinally(signal -> inflight.decrementAndGet());
+	}
+
+	private Flux<byte[]> chunks() {
+		final byte[] body = payload;
+		final int count = Math.max(1, Math.min(dripChunks, body.length));
+		final int size = (body.length + count - 1) / count;
+
+		final List<byte[]> chunks = new ArrayList<>();
+		for (int offset = 0; offset < body.length; offset += size) {
+			chunks.add(Arrays.copyOfRange(body, offset, Math.min(body.length, offset + size)));
+		}
+
+		final Flux<byte[]> flux = Flux.fromIterable(chunks);
+		return dripInterval.isZero() ? flux : flux.delayElements(dripInterval);
+	}
+
+	/**
+	 * Json array of repository-like objects, at least given size in bytes.
+	 */
+	private static byte[] json(int bytes) {
+		final StringBuilder builder = new StringBuilder("[");
+		for (int i = 0; builder.length() < bytes - 1; i++) {
+			if (i > 0) {
+				builder.append(',');
+			}
+			builder.append("{\"id\":").append(i)
+					.append(",\"name\":\"repo-").append(i)
+					.append("\",\"description\":\"").append(StringUtils.repeat('x', 64))
+					.append("\"}");
+		}
+		return builder.append(']').toString().getBytes(StandardCharsets.UTF_8);
+	}
+}
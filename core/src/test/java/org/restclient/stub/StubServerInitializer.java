@@ -0,0 +1,19 @@
+package org.restclient.stub;
+
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.lang.NonNull;
+
+/**
+ * Points test routes to {@link StubServer#shared()} through stub.port property.
+ *
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+public class StubServerInitializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+	@Override
+	public void initialize(@NonNull ConfigurableApplicationContext context) {
+		TestPropertyValues.of("stub.port=" + StubServer.shared().getPort()).applyTo(context);
+	}
+}
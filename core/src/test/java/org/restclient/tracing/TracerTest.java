@@ -0,0 +1,211 @@
+package org.restclient.tracing;
+
+import org.junit.Test;
+import org.restclient.config.ServicesConfiguration.RouteSettings;
+import org.restclient.model.MappingMetadata;
+import org.restclient.model.ResponseMode;
+import org.restclient.tracing.Span.Phase;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author: GenCloud
+ * @created: 2019/08
+ */
+public class TracerTest {
+	private final List<Span> reported = new ArrayList<>();
+
+	@Test
+	public void test_notSampled() throws NoSuchMethodException {
+		final Tracer tracer = new Tracer(0, Collections.emptyList(), Collections.singletonList(reported::add));
+
+		assertNull(tracer.start("github-service", metadata()));
+	}
+
+	@Test
+	public void test_sampledCall() throws NoSuchMethodException {
+		final Tracer tracer = new Tracer(1, Collections.singletonList(HttpHeaders.AUTHORIZATION),
+				Collections.singletonList(reported::add));
+		final Span span = tracer.start("github-service", metadata());
+		assertNotNull(span);
+		span.mark(Phase.BINDING).mark(Phase.INTERCEPTORS);
+
+		final AtomicReference<ClientRequest> sent = new AtomicReference<>();
+		final WebClient.Builder builder = WebClient.builder()
+				.exchangeFunction(request -> {
+					sent.set(request);
+					return Mono.just(ClientResponse.create(HttpStatus.OK).body("[]").build());
+				});
+		tracer.customize(new RouteSettings(), builder);
+
+		final String body = builder.build()
+				.get()
+				.uri("http://localhost/users/gencloud/repos")
+				.header(HttpHeaders.AUTHORIZATION, "token secret")
+				.attribute(Span.ATTRIBUTE, span)
+				.retrieve()
+				.bodyToMono(String.class)
+				.block();
+		tracer.finish(span.mark(Phase.DECODE), null);
+		tracer.finish(span, null);
+
+		assertEquals("[]", body);
+		assertEquals(span.getTraceparent(), sent.get().headers().getFirst(Tracer.TRACEPARENT));
+		assertEquals("token secret", sent.get().headers().getFirst(HttpHeaders.AUTHORIZATION));
+		assertEquals("***", span.getRequestHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+		assertEquals(200, span.getStatus());
+		assertTrue(span.getDuration(Phase.TTFB) >= 0);
+		assertTrue(span.getDuration(Phase.BODY) >= 0);
+		assertEquals(-1, span.getDuration(Phase.ACQUIRE));
+		assertEquals(Collections.singletonList(span), reported);
+	}
+
+	@Test
+	public void test_joinParentTrace() throws NoSuchMethodException {
+		final Tracer tracer = new Tracer(1, Collections.emptyList(), Collections.singletonList(reported::add));
+		final String parent = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+
+		final AtomicReference<ClientRequest> sent = new AtomicReference<>();
+		final WebClient.Builder builder = WebClient.builder()
+				.exchangeFunction(request -> {
+					sent.set(request);
+					return Mono.just(ClientResponse.create(HttpStatus.OK).body("[]").build());
+				});
+		tracer.customize(new RouteSettings(), builder);
+		final WebClient webClient = builder.build();
+
+		final Span child = tracer.start("github-service", metadata());
+		get(webClient, child).subscriberContext(Tracer.toContext(parent)).block();
+
+		assertEquals("4bf92f3577b34da6a3ce929d0e0e4736", child.getTraceId());
+		assertEquals("00f067aa0ba902b7", child.getParentId());
+		assertNotEquals("00f067aa0ba902b7", child.getSpanId());
+		assertEquals("00-4bf92f3577b34da6a3ce929d0e0e4736-" + child.getSpanId() + "-01",
+				sent.get().headers().getFirst(Tracer.TRACEPARENT));
+
+		final Span root = tracer.start("github-service", metadata());
+		final String traceId = root.getTraceId();
+		get(webClient, root).subscriberContext(Tracer.toContext("00-00000000000000000000000000000000-00f067aa0ba902b7-01")).block();
+
+		assertEquals(traceId, root.getTraceId());
+		assertNull(root.getParentId());
+		assertEquals(root.getTraceparent(), sent.get().headers().getFirst(Tracer.TRACEPARENT));
+	}
+
+	@Test
+	public void test_forwardParentOfUnsampledCall() throws NoSuchMethodException {
+		final String parent = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-00";
+		final AtomicReference<ClientRequest> sent = new AtomicReference<>();
+
+		final Tracer unsampled = new Tracer(0, Collections.emptyList(), Collections.singletonList(reported::add));
+		get(webClient(unsampled, sent), null).subscriberContext(Tracer.toContext(parent)).block();
+
+		final String forwarded = sent.get().headers().getFirst(Tracer.TRACEPARENT);
+		assertTrue(forwarded, forwarded.matches("00-4bf92f3577b34da6a3ce929d0e0e4736-[0-9a-f]{16}-00"));
+		assertNotEquals(parent, forwarded);
+
+		// parent decision overrides rate
+		final Tracer sampled = new Tracer(1, Collections.emptyList(), Collections.singletonList(reported::add));
+		final Span span = sampled.start("github-service", metadata());
+		get(webClient(sampled, sent), span).subscriberContext(Tracer.toContext(parent)).block();
+		sampled.finish(span, null);
+
+		assertFalse(span.isSampled());
+		assertEquals("00-4bf92f3577b34da6a3ce929d0e0e4736-" + span.getSpanId() + "-00",
+				sent.get().headers().getFirst(Tracer.TRACEPARENT));
+		assertTrue(reported.isEmpty());
+	}
+
+	@Test
+	public void test_sampledParentForcesSampling() {
+		final String parent = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+		final AtomicReference<ClientRequest> sent = new AtomicReference<>();
+		final Tracer tracer = new Tracer(0, Collections.emptyList(), Collections.singletonList(reported::add));
+
+		assertEquals("[]", get(webClient(tracer, sent), null).subscriberContext(Tracer.toContext(parent)).block());
+
+		assertEquals(1, reported.size());
+		final Span span = reported.get(0);
+		assertEquals("github-service", span.getAlias());
+		assertEquals("4bf92f3577b34da6a3ce929d0e0e4736", span.getTraceId());
+		assertEquals("00f067aa0ba902b7", span.getParentId());
+		assertEquals(span.getTraceparent(), sent.get().headers().getFirst(Tracer.TRACEPARENT));
+		assertTrue(span.getTraceparent().endsWith("-01"));
+		assertEquals(200, span.getStatus());
+		assertTrue(span.getDuration(Phase.BODY) >= 0);
+		assertTrue(span.getTotal() >= 0);
+	}
+
+	@Test
+	public void test_markAcquireOfPool() throws NoSuchMethodException {
+		final DisposableServer server = HttpServer.create()
+				.host("127.0.0.1")
+				.port(0)
+				.handle((request, response) -> response.sendString(Mono.just("[]")))
+				.bindNow();
+		final ConnectionProvider pool = ConnectionProvider.fixed("tracer-test", 1);
+
+		try {
+			final Tracer tracer = new Tracer(1, Collections.emptyList(), Collections.singletonList(reported::add));
+			final RouteSettings settings = new RouteSettings();
+			final WebClient.Builder builder = WebClient.builder()
+					.clientConnector(new ReactorClientHttpConnector(tracer.customize(settings, HttpClient.create(pool))))
+					.baseUrl("http://127.0.0.1:" + server.port());
+			tracer.customize(settings, builder);
+
+			final Span span = tracer.start("github-service", metadata());
+			span.mark(Phase.BINDING).mark(Phase.INTERCEPTORS);
+			assertEquals("[]", get(builder.build(), span).block());
+
+			assertTrue(span.getDuration(Phase.ACQUIRE) >= 0);
+			assertTrue(span.getDuration(Phase.TTFB) >= 0);
+			assertTrue(span.getDuration(Phase.BODY) >= 0);
+		} finally {
+			pool.dispose();
+			server.disposeNow();
+		}
+	}
+
+	private static Mono<String> get(WebClient webClient, Span span) {
+		final WebClient.RequestHeadersSpec<?> request = webClient.get().uri("/users/gencloud/repos");
+		if (span != null) {
+			request.attribute(Span.ATTRIBUTE, span);
+		}
+		return request.retrieve().bodyToMono(String.class);
+	}
+
+	private static WebClient webClient(Tracer tracer, AtomicReference<ClientRequest> sent) {
+		final RouteSettings settings = new RouteSettings();
+		settings.setAlias("github-service");
+
+		final WebClient.Builder builder = WebClient.builder()
+				.exchangeFunction(request -> {
+					sent.set(request);
+					return Mono.just(ClientResponse.create(HttpStatus.OK).body("[]").build());
+				});
+		tracer.customize(settings, builder);
+		return builder.build();
+	}
+
+	private static MappingMetadata metadata() throws NoSuchMethodException {
+		return new MappingMetadata(Object.class.getMethod("toString"), HttpMethod.GET, "${github-service}/users/${userName}/repos",
+				new HttpHeaders(), "", ResponseMode.DECODED);
+	}
+}